@@ -0,0 +1,68 @@
+package com.abnalliance.journalapp.benchmark;
+
+import com.abnalliance.journalapp.entity.JournalEntry;
+import com.abnalliance.journalapp.entity.Users;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of journal and user listings (GET /journal pages, /admin/all-users)
+ * The mapper is built like Spring Boot's (java.time support, dates as ISO strings)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "20", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<JournalEntry> journalEntries;
+    private List<Users> users;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        journalEntries = new ArrayList<>(size);
+        users = new ArrayList<>(size);
+        Instant now = Instant.now();
+        for (int i = 0; i < size; i++) {
+            JournalEntry entry = new JournalEntry();
+            entry.setId(new ObjectId());
+            entry.setTitle("Entry " + i);
+            entry.setContent("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(8));
+            entry.setDate(LocalDate.now().minusDays(i));
+            entry.setCreatedAt(now);
+            entry.setUpdatedAt(now);
+            entry.setUserId(new ObjectId());
+            journalEntries.add(entry);
+
+            Users user = new Users();
+            user.setId(new ObjectId());
+            user.setUserName("user" + i);
+            user.setPassword("$2a$10$abcdefghijklmnopqrstuuABCDEFGHIJKLMNOPQRSTUVWXYZ01234");
+            user.setRoles(List.of("USER"));
+            user.setJournalCount(i);
+            users.add(user);
+        }
+    }
+
+    @Benchmark
+    public byte[] journalEntries() throws Exception {
+        return objectMapper.writeValueAsBytes(journalEntries);
+    }
+
+    @Benchmark
+    public byte[] users() throws Exception {
+        return objectMapper.writeValueAsBytes(users);
+    }
+}
@@ -0,0 +1,79 @@
+package com.abnalliance.journalapp.benchmark;
+
+import com.abnalliance.journalapp.entity.JournalEntry;
+import com.abnalliance.journalapp.entity.Users;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spring Data mapping cost of a user and their N journals, without a database
+ * - readLegacyUser: a not-yet-migrated user document still carrying N journalEntries DBRefs
+ *   (no longer mapped by Users, so this is the cost of dragging the array along)
+ * - readJournals: mapping the N journal documents an owner-scoped query returns, the work each
+ *   DBRef resolution used to do one round trip at a time
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MongoMappingBenchmark {
+
+    @Param({"0", "10", "100", "1000"})
+    private int journals;
+
+    private MappingMongoConverter converter;
+    private Document legacyUser;
+    private List<Document> journalDocuments;
+
+    @Setup
+    public void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+
+        ObjectId userId = new ObjectId();
+        List<DBRef> refs = new ArrayList<>(journals);
+        journalDocuments = new ArrayList<>(journals);
+        for (int i = 0; i < journals; i++) {
+            ObjectId id = new ObjectId();
+            refs.add(new DBRef("journal_db", id));
+            journalDocuments.add(new Document("_id", id)
+                    .append("title", "Entry " + i)
+                    .append("content", "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(8))
+                    .append("date", Date.from(Instant.now()))
+                    .append("createdAt", Date.from(Instant.now()))
+                    .append("updatedAt", Date.from(Instant.now()))
+                    .append("userId", userId));
+        }
+        legacyUser = new Document("_id", userId)
+                .append("userName", "legacy")
+                .append("password", "$2a$10$abcdefghijklmnopqrstuuABCDEFGHIJKLMNOPQRSTUVWXYZ01234")
+                .append("roles", List.of("USER"))
+                .append("journalEntries", refs);
+    }
+
+    @Benchmark
+    public Users readLegacyUser() {
+        return converter.read(Users.class, legacyUser);
+    }
+
+    @Benchmark
+    public List<JournalEntry> readJournals() {
+        List<JournalEntry> entries = new ArrayList<>(journalDocuments.size());
+        for (Document document : journalDocuments) {
+            entries.add(converter.read(JournalEntry.class, document));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,89 @@
+package com.abnalliance.journalapp.benchmark;
+
+import com.abnalliance.journalapp.entity.JournalEntry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application side of the ownership check of GET/DELETE /journal/id/{id}, without a database
+ * - dbRefLookup: the original check, mapping the N journals the user's DBRefs resolved to (one round trip each)
+ *   and scanning them for the id
+ * - ownerQuery: the current check, JournalEntryRepository.findByIdAndUserId: the owner filter mapped by
+ *   Spring Data's QueryMapper as MongoTemplate sends it (one _id index lookup in Mongo) and the one matching
+ *   document mapped back
+ * Round trips are not measured: N for the DBRefs against one, see MongoMappingBenchmark for the mapping alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OwnershipCheckBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int journals;
+
+    private MappingMongoConverter converter;
+    private QueryMapper queryMapper;
+    private MongoPersistentEntity<?> journalEntity;
+    private List<Document> journalDocuments;
+    private ObjectId userId;
+    private ObjectId requestedId;
+    private Document requestedDocument;
+
+    @Setup
+    public void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        queryMapper = new QueryMapper(converter);
+        journalEntity = mappingContext.getRequiredPersistentEntity(JournalEntry.class);
+
+        userId = new ObjectId();
+        journalDocuments = new ArrayList<>(journals);
+        for (int i = 0; i < journals; i++) {
+            journalDocuments.add(new Document("_id", new ObjectId())
+                    .append("title", "Entry " + i)
+                    .append("content", "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(8))
+                    .append("date", Date.from(Instant.now()))
+                    .append("userId", userId)
+                    .append("version", 1L));
+        }
+        // Worst case for the scan: the last entry of the list
+        requestedDocument = journalDocuments.get(journals - 1);
+        requestedId = new ObjectId(requestedDocument.getObjectId("_id").toHexString());
+    }
+
+    @Benchmark
+    public boolean dbRefLookup() {
+        List<JournalEntry> userJournals = new ArrayList<>(journalDocuments.size());
+        for (Document document : journalDocuments) {
+            userJournals.add(converter.read(JournalEntry.class, document));
+        }
+        return userJournals.stream().anyMatch(entry -> entry.getId().equals(requestedId));
+    }
+
+    @Benchmark
+    public JournalEntry ownerQuery() {
+        Query query = new Query(Criteria.where("id").is(requestedId).and("userId").is(userId));
+        Document filter = queryMapper.getMappedObject(query.getQueryObject(), journalEntity);
+        // Stands in for Mongo evaluating the mapped filter on the one document the _id index finds
+        if (!requestedId.equals(filter.get("_id")) || !userId.equals(filter.get("userId"))) {
+            return null;
+        }
+        return converter.read(JournalEntry.class, requestedDocument);
+    }
+}
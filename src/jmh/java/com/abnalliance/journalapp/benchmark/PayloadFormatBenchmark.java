@@ -0,0 +1,104 @@
+package com.abnalliance.journalapp.benchmark;
+
+import com.abnalliance.journalapp.dto.JournalPage;
+import com.abnalliance.journalapp.entity.JournalEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Size and CPU cost of a GET /journal page per response format (JSON, CBOR, Smile), with and without gzip
+ * The score is the serialization (+ compression) time, payload sizes are reported as the secondary results
+ * bytes and gzippedBytes (@AuxCounters), so they land in jmh-result.json next to it
+ * Used to pick the server.compression threshold and to compare the binary formats against gzipped JSON
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PayloadFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"1", "20", "100"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private JournalPage page;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Built like PayloadFormatConfig (copyWith per format) but from a plain builder: Spring's Jackson defaults,
+        // without the spring.jackson.* settings Boot applies to the application's builder
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper = switch (format) {
+            case "cbor" -> json.copyWith(new CBORFactory());
+            case "smile" -> json.copyWith(new SmileFactory());
+            default -> json;
+        };
+
+        List<JournalEntry> entries = new ArrayList<>(size);
+        Instant now = Instant.now();
+        for (int i = 0; i < size; i++) {
+            JournalEntry entry = new JournalEntry();
+            entry.setId(new ObjectId());
+            entry.setTitle("Entry " + i);
+            entry.setContent("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(8));
+            entry.setDate(LocalDate.now().minusDays(i));
+            entry.setCreatedAt(now);
+            entry.setUpdatedAt(now);
+            entry.setVersion(1);
+            entries.add(entry);
+        }
+        page = new JournalPage(entries, null);
+    }
+
+    /**
+     * Payload size of the current format and page size, the same value on every iteration
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadBytes {
+
+        public long bytes;
+        public long gzippedBytes;
+
+        // JMH never resets counters, set them before each iteration
+        @Setup(Level.Iteration)
+        public void measure(PayloadFormatBenchmark benchmark) throws IOException {
+            byte[] raw = benchmark.objectMapper.writeValueAsBytes(benchmark.page);
+            bytes = raw.length;
+            gzippedBytes = gzip(raw).length;
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize(PayloadBytes payloadBytes) throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip(PayloadBytes payloadBytes) throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(page));
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
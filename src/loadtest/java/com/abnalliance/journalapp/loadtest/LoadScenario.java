@@ -0,0 +1,104 @@
+package com.abnalliance.journalapp.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Load test scenario: data set size, concurrency, timing and the weighted operation mix
+ * Read from scenarios/<name>.properties on the classpath, then key=value overrides from the command line
+ */
+final class LoadScenario {
+
+    final String name;
+    final int users;
+    final int journalsPerUser;
+    final int clients;
+    final Duration warmup;
+    final Duration duration;
+    final Duration thinkTime;
+    final int pageSize;
+    // Base URL of an already running deployment, empty to boot the app against the in-process Mongo
+    final String target;
+    final Map<Operation, Integer> mix;
+    final int totalWeight;
+    // app.<property>=value entries, passed to the booted app as --<property>=value (e.g. app.server.tomcat.threads.max=400)
+    final Map<String, String> appProperties;
+
+    private LoadScenario(String name, Properties properties) {
+        this.name = name;
+        this.users = Integer.parseInt(properties.getProperty("users", "100"));
+        this.journalsPerUser = Integer.parseInt(properties.getProperty("journals-per-user", "50"));
+        this.clients = Integer.parseInt(properties.getProperty("clients", "100"));
+        this.warmup = DurationStyle.detectAndParse(properties.getProperty("warmup", "10s"));
+        this.duration = DurationStyle.detectAndParse(properties.getProperty("duration", "60s"));
+        this.thinkTime = DurationStyle.detectAndParse(properties.getProperty("think-time", "0ms"));
+        this.pageSize = Integer.parseInt(properties.getProperty("page-size", "20"));
+        this.target = properties.getProperty("target", "").trim();
+
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        int total = 0;
+        for (Operation operation : Operation.values()) {
+            int weight = Integer.parseInt(properties.getProperty("mix." + operation.key, "0"));
+            if (weight > 0) {
+                weights.put(operation, weight);
+                total += weight;
+            }
+        }
+        if (users < 1 || clients < 1 || total == 0) {
+            throw new IllegalArgumentException("Scenario " + name + " needs users >= 1, clients >= 1 and at least one mix.* weight");
+        }
+        this.mix = weights;
+        this.totalWeight = total;
+
+        Map<String, String> app = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith("app.")) {
+                app.put(key.substring("app.".length()), properties.getProperty(key));
+            }
+        }
+        this.appProperties = app;
+    }
+
+    static LoadScenario load(String name, List<String> overrides) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = LoadScenario.class.getResourceAsStream("/scenarios/" + name + ".properties")) {
+            if (in == null) {
+                throw new IllegalArgumentException("Unknown scenario: " + name);
+            }
+            properties.load(in);
+        }
+        for (String override : overrides) {
+            int separator = override.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Override must be key=value: " + override);
+            }
+            properties.setProperty(override.substring(0, separator).trim(), override.substring(separator + 1).trim());
+        }
+        return new LoadScenario(name, properties);
+    }
+
+    // Weighted pick, roll is uniform in [0, totalWeight)
+    Operation pick(int roll) {
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Roll out of range");
+    }
+
+    @Override
+    public String toString() {
+        return name + " (users=" + users + ", journals/user=" + journalsPerUser + ", clients=" + clients
+                + ", warmup=" + warmup + ", duration=" + duration + ", mix=" + mix + ", app=" + appProperties + ")";
+    }
+}
@@ -0,0 +1,424 @@
+package com.abnalliance.journalapp.loadtest;
+
+import com.abnalliance.journalapp.JournalappApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end load test of the journal API
+ * - Boots the app against an in-process Mongo stand-in (mongo-java-server, in memory), or uses target=<url>
+ * - Seeds users and journals through the public endpoints
+ * - Drives a weighted create/list/get/update/delete mix (plus PUT/DELETE /user) from many closed-loop clients
+ * - Reports throughput and HdrHistogram percentiles per endpoint, and writes JSON + .hgrm files to target/loadtest
+ *
+ * Usage: LoadTestHarness <scenario> [key=value ...], scenarios live in src/loadtest/resources/scenarios
+ * Closed-loop clients slow down with the server, so under saturation the percentiles understate what an
+ * open arrival rate would see (coordinated omission); compare runs of the same scenario, not across scenarios.
+ */
+public final class LoadTestHarness {
+
+    private static final String PASSWORD = "load-test-password";
+    // Keep at or below journal.batch.max-size
+    private static final int BATCH_SIZE = 500;
+    private static final int REFILL_SIZE = 20;
+    private static final Path OUTPUT = Path.of("target", "loadtest");
+
+    private final LoadScenario scenario;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    // Unique per run, so repeated runs against one target never collide on user names
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicInteger throwawayUsers = new AtomicInteger();
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private volatile boolean measuring;
+    private String baseUrl;
+
+    private LoadTestHarness(LoadScenario scenario) {
+        this.scenario = scenario;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        for (Operation operation : scenario.mix.keySet()) {
+            latencies.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String name = args.length > 0 ? args[0] : "mixed";
+        List<String> overrides = args.length > 1 ? Arrays.asList(args).subList(1, args.length) : List.of();
+        new LoadTestHarness(LoadScenario.load(name, overrides)).run();
+    }
+
+    private void run() throws Exception {
+        MongoServer mongoServer = null;
+        ConfigurableApplicationContext context = null;
+        try {
+            if (scenario.target.isEmpty()) {
+                mongoServer = new MongoServer(new MemoryBackend());
+                context = bootApplication(mongoServer.bind());
+                baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            } else {
+                baseUrl = scenario.target;
+            }
+            System.out.println("Scenario: " + scenario);
+            System.out.println("Target:   " + baseUrl);
+
+            List<VirtualUser> users = seed();
+            drive(users);
+            report();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (mongoServer != null) {
+                mongoServer.shutdownNow();
+            }
+        }
+    }
+
+    // Command line arguments take precedence over application.yml, so the app never reaches a real database
+    private ConfigurableApplicationContext bootApplication(InetSocketAddress mongo) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=loadtest",
+                "--spring.data.mongodb.uri=mongodb://" + mongo.getHostString() + ":" + mongo.getPort() + "/journaldb",
+                "--spring.data.mongodb.database=journaldb",
+                // The stand-in has no text index support, search is not part of the workload
+                "--spring.data.mongodb.auto-index-creation=false",
+                "--server.port=0",
+                "--journal.token.access-ttl=24h",
+                "--logging.level.root=WARN"));
+        Map<String, String> properties = new LinkedHashMap<>();
+        // Every virtual user comes from 127.0.0.1, the source bucket would throttle the whole run
+        properties.put("journal.admission.enabled", "false");
+        // Single instance: nothing to notify, and the stand-in has no capped collections / tailable cursors
+        properties.put("journal.invalidation.transport", "none");
+        // A repeated argument would be joined into "a,b", scenario values replace the defaults instead
+        properties.putAll(scenario.appProperties);
+        properties.forEach((key, value) -> args.add("--" + key + "=" + value));
+        return new SpringApplicationBuilder(JournalappApplication.class).run(args.toArray(String[]::new));
+    }
+
+    private List<VirtualUser> seed() throws Exception {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(scenario.clients, 32));
+        try {
+            List<Future<VirtualUser>> pending = new ArrayList<>(scenario.users);
+            for (int i = 0; i < scenario.users; i++) {
+                String userName = "lt-" + runId + "-" + i;
+                pending.add(pool.submit(() -> {
+                    VirtualUser user = register(userName);
+                    refill(user, scenario.journalsPerUser);
+                    return user;
+                }));
+            }
+            List<VirtualUser> users = new ArrayList<>(scenario.users);
+            for (Future<VirtualUser> future : pending) {
+                users.add(future.get());
+            }
+            System.out.printf("Seeded %d users x %d journals in %d ms%n", scenario.users, scenario.journalsPerUser,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return users;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void drive(List<VirtualUser> users) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(scenario.clients);
+        long end = System.nanoTime() + scenario.warmup.toNanos() + scenario.duration.toNanos();
+        for (int i = 0; i < scenario.clients; i++) {
+            // Clients share users only when there are more clients than users
+            VirtualUser user = users.get(i % users.size());
+            pool.submit(() -> clientLoop(user, end));
+        }
+        System.out.println("Warming up for " + scenario.warmup);
+        Thread.sleep(scenario.warmup.toMillis());
+        measuring = true;
+        System.out.println("Measuring for " + scenario.duration);
+        pool.shutdown();
+        if (!pool.awaitTermination(scenario.duration.toMillis() + 60_000, TimeUnit.MILLISECONDS)) {
+            pool.shutdownNow();
+        }
+        measuring = false;
+    }
+
+    private void clientLoop(VirtualUser user, long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < end) {
+            Operation operation = scenario.pick(random.nextInt(scenario.totalWeight));
+            try {
+                execute(operation, user, random);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Setup failures (refill, throwaway user) are not part of any endpoint's numbers
+                if (measuring) {
+                    errors.get(operation).increment();
+                }
+            }
+            if (!scenario.thinkTime.isZero()) {
+                try {
+                    Thread.sleep(scenario.thinkTime.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void execute(Operation operation, VirtualUser user, ThreadLocalRandom random) throws Exception {
+        switch (operation) {
+            case CREATE -> timed(operation, user.token, "POST", "/journal", journal("Entry"));
+            case LIST -> {
+                String cursor = user.cursor;
+                String path = "/journal?size=" + scenario.pageSize + (cursor != null ? "&cursor=" + cursor : "");
+                HttpResponse<String> response = timed(operation, user.token, "GET", path, null);
+                if (isSuccess(response)) {
+                    // Walk the listing page by page, starting over after the last page
+                    JsonNode next = objectMapper.readTree(response.body()).path("nextCursor");
+                    user.cursor = next.isTextual() ? next.asText() : null;
+                }
+            }
+            case GET -> timed(operation, user.token, "GET", "/journal/id/" + someId(user, random), null);
+            case UPDATE -> timed(operation, user.token, "PATCH", "/journal/id/" + someId(user, random),
+                    objectMapper.createObjectNode().put("content", "Updated at " + Instant.now()));
+            case DELETE -> {
+                String id = takeId(user, random);
+                timed(operation, user.token, "DELETE", "/journal/id/" + id, null);
+            }
+            // Same name and password: measures the BCrypt re-encode and credential cache invalidation
+            case USER_UPDATE -> timed(operation, user.token, "PUT", "/user", credentials(user.userName));
+            case USER_DELETE -> {
+                VirtualUser throwaway = register("lt-" + runId + "-x" + throwawayUsers.incrementAndGet());
+                timed(operation, throwaway.token, "DELETE", "/user", credentials(throwaway.userName));
+            }
+        }
+    }
+
+    private HttpResponse<String> timed(Operation operation, String token, String method, String path, JsonNode body) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = send(token, method, path, body);
+        } catch (IOException e) {
+            record(operation, start, false);
+            return null;
+        }
+        record(operation, start, isSuccess(response));
+        return response;
+    }
+
+    private void record(Operation operation, long startNanos, boolean success) {
+        if (measuring) {
+            latencies.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+            if (!success) {
+                errors.get(operation).increment();
+            }
+        }
+    }
+
+    private HttpResponse<String> send(String token, String method, String path, JsonNode body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (body != null) {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private VirtualUser register(String userName) throws IOException, InterruptedException {
+        ObjectNode credentials = credentials(userName);
+        expectSuccess(send(null, "POST", "/public/create-user", credentials), "POST /public/create-user");
+        HttpResponse<String> login = send(null, "POST", "/public/login", credentials);
+        expectSuccess(login, "POST /public/login");
+        return new VirtualUser(userName, objectMapper.readTree(login.body()).path("accessToken").asText());
+    }
+
+    // Adds journals through /journal/batch, which answers with hex ids usable in /journal/id/{id}
+    // (POST /journal returns the id as a serialized ObjectId object, so created entries are not tracked)
+    private void refill(VirtualUser user, int count) throws IOException, InterruptedException {
+        int remaining = count;
+        while (remaining > 0) {
+            int size = Math.min(BATCH_SIZE, remaining);
+            ArrayNode batch = objectMapper.createArrayNode();
+            for (int i = 0; i < size; i++) {
+                batch.add(journal("Seed"));
+            }
+            HttpResponse<String> response = send(user.token, "POST", "/journal/batch", batch);
+            expectSuccess(response, "POST /journal/batch");
+            List<String> ids = new ArrayList<>(size);
+            for (JsonNode result : objectMapper.readTree(response.body())) {
+                if ("CREATED".equals(result.path("status").asText())) {
+                    ids.add(result.path("id").asText());
+                }
+            }
+            synchronized (user.ids) {
+                user.ids.addAll(ids);
+            }
+            remaining -= size;
+        }
+    }
+
+    private String someId(VirtualUser user, ThreadLocalRandom random) throws IOException, InterruptedException {
+        synchronized (user.ids) {
+            if (!user.ids.isEmpty()) {
+                return user.ids.get(random.nextInt(user.ids.size()));
+            }
+        }
+        refill(user, REFILL_SIZE);
+        return someId(user, random);
+    }
+
+    // Removes the id before the delete is sent, so other clients of the same user stop picking it
+    private String takeId(VirtualUser user, ThreadLocalRandom random) throws IOException, InterruptedException {
+        synchronized (user.ids) {
+            if (!user.ids.isEmpty()) {
+                int index = random.nextInt(user.ids.size());
+                String id = user.ids.get(index);
+                user.ids.set(index, user.ids.get(user.ids.size() - 1));
+                user.ids.remove(user.ids.size() - 1);
+                return id;
+            }
+        }
+        refill(user, REFILL_SIZE);
+        return takeId(user, random);
+    }
+
+    private ObjectNode journal(String title) {
+        return objectMapper.createObjectNode()
+                .put("title", title)
+                .put("content", "Load test entry written at " + Instant.now() + ". " + "Lorem ipsum dolor sit amet. ".repeat(8));
+    }
+
+    private ObjectNode credentials(String userName) {
+        return objectMapper.createObjectNode().put("userName", userName).put("password", PASSWORD);
+    }
+
+    private static boolean isSuccess(HttpResponse<String> response) {
+        return response != null && response.statusCode() / 100 == 2;
+    }
+
+    private static void expectSuccess(HttpResponse<String> response, String endpoint) {
+        if (!isSuccess(response)) {
+            throw new IllegalStateException(endpoint + " answered " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    private void report() throws IOException {
+        double seconds = scenario.duration.toMillis() / 1000.0;
+        Path directory = OUTPUT.resolve(scenario.name + "-" + runId);
+        Files.createDirectories(directory);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("scenario", scenario.name);
+        summary.put("runId", runId);
+        summary.put("target", baseUrl);
+        summary.put("users", scenario.users);
+        summary.put("journalsPerUser", scenario.journalsPerUser);
+        summary.put("clients", scenario.clients);
+        summary.put("durationSeconds", seconds);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        summary.put("endpoints", endpoints);
+
+        System.out.println();
+        System.out.printf("%-24s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long totalRequests = 0;
+        for (Operation operation : scenario.mix.keySet()) {
+            Histogram histogram = latencies.get(operation);
+            long count = histogram.getTotalCount();
+            long failed = errors.get(operation).sum();
+            totalRequests += count;
+            System.out.printf("%-24s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.endpoint, count, failed, count / seconds,
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0);
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", count);
+            stats.put("errors", failed);
+            stats.put("throughput", count / seconds);
+            stats.put("p50Ms", millis(histogram, 50));
+            stats.put("p90Ms", millis(histogram, 90));
+            stats.put("p99Ms", millis(histogram, 99));
+            stats.put("p999Ms", millis(histogram, 99.9));
+            stats.put("maxMs", histogram.getMaxValue() / 1000.0);
+            endpoints.put(operation.endpoint, stats);
+
+            // Full distribution in HdrHistogram's percentile format (plottable with the HdrHistogram plotter)
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(operation.key + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        summary.put("totalThroughput", totalRequests / seconds);
+        System.out.printf("%-24s %10d %8s %10.1f%n", "total", totalRequests, "", totalRequests / seconds);
+
+        Path json = directory.resolve("summary.json");
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(json.toFile(), summary);
+        System.out.println("Results written to " + directory.toAbsolutePath());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    // One seeded account, shared by the clients assigned to it
+    private static final class VirtualUser {
+        final String userName;
+        final String token;
+        final List<String> ids = new ArrayList<>();
+        volatile String cursor;
+
+        VirtualUser(String userName, String token) {
+            this.userName = userName;
+            this.token = token;
+        }
+    }
+}
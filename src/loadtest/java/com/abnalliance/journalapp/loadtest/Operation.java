@@ -0,0 +1,22 @@
+package com.abnalliance.journalapp.loadtest;
+
+/**
+ * Requests a virtual client can issue, keyed by the name used in scenario files (mix.<key>=weight)
+ */
+enum Operation {
+    CREATE("create", "POST /journal"),
+    LIST("list", "GET /journal"),
+    GET("get", "GET /journal/id/{id}"),
+    UPDATE("update", "PATCH /journal/id/{id}"),
+    DELETE("delete", "DELETE /journal/id/{id}"),
+    USER_UPDATE("user-update", "PUT /user"),
+    USER_DELETE("user-delete", "DELETE /user");
+
+    final String key;
+    final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+}
@@ -0,0 +1,63 @@
+package com.abnalliance.journalapp.configuration;
+
+import com.abnalliance.journalapp.service.AdmissionControlService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Rejects excess traffic with 429 + Retry-After before Basic authentication (user lookup + BCrypt) runs:
+ * the client address' bucket, and requests that would hash while every BCrypt permit is taken. The per-user bucket is UserRateLimitFilter's,
+ * after authentication, so a claimed user name never spends anybody's tokens.
+ * Not a @Component on purpose: it must only run inside the security filter chain.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionControlService admissionControlService;
+
+    public AdmissionControlFilter(AdmissionControlService admissionControlService) {
+        this.admissionControlService = admissionControlService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!admissionControlService.isEnabled() || admissionControlService.isExempt(path)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Client address as resolved from X-Forwarded-For by a trusted proxy (server.forward-headers-strategy)
+        long retryAfter = admissionControlService.checkSourceRate(request.getRemoteAddr());
+        if (retryAfter > 0) {
+            reject(response, retryAfter);
+            return;
+        }
+
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        String credentialKey = admissionControlService.credentialKey(authorization);
+        if (credentialKey != null) {
+            // Basic authentication looks the credentials up under this key instead of hashing them again
+            request.setAttribute(CachingAuthenticationProvider.KEY_ATTRIBUTE, credentialKey);
+        }
+        if (admissionControlService.requiresHashing(request.getMethod(), path, authorization, credentialKey)
+                && admissionControlService.isHashingSaturated()) {
+            reject(response, admissionControlService.getHashingRetryAfterSeconds());
+            return;
+        }
+        // The hashing permit itself is only held by ExecutorPasswordEncoder around the BCrypt call
+        filterChain.doFilter(request, response);
+    }
+
+    static void reject(HttpServletResponse response, long retryAfterSeconds) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    }
+}
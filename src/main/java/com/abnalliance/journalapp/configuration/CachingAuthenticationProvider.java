@@ -0,0 +1,67 @@
+package com.abnalliance.journalapp.configuration;
+
+import com.abnalliance.journalapp.service.CredentialCacheService;
+import com.abnalliance.journalapp.service.UserDetailServiceImp;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authentication provider used by httpBasic
+ * Checks the credential cache first and only falls back to the regular
+ * user lookup + BCrypt verify (DaoAuthenticationProvider) on a miss.
+ * Failed verifications are never cached.
+ * The cache key is normally computed once by the admission filter and arrives as CredentialKey details.
+ */
+@Component
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    // Request attribute (servlet) or subscriber context key (reactive) holding the admission filter's credential key
+    public static final String KEY_ATTRIBUTE = CachingAuthenticationProvider.class.getName() + ".credentialKey";
+
+    /**
+     * Authentication details of a Basic request: its credential cache key, null when the filter did not compute one
+     */
+    public record CredentialKey(String value) {
+    }
+
+    private final DaoAuthenticationProvider delegate;
+
+    @Autowired
+    private CredentialCacheService credentialCacheService;
+
+    public CachingAuthenticationProvider(UserDetailServiceImp userDetailService, PasswordEncoder passwordEncoder) {
+        this.delegate = new DaoAuthenticationProvider(passwordEncoder);
+        this.delegate.setUserDetailsService(userDetailService);
+        // Rehashes outdated hashes (lower cost, legacy unprefixed) after a successful verify
+        this.delegate.setUserDetailsPasswordService(userDetailService);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!credentialCacheService.isEnabled() || authentication.getCredentials() == null) {
+            return delegate.authenticate(authentication);
+        }
+
+        String key = authentication.getDetails() instanceof CredentialKey credentialKey && credentialKey.value() != null
+                ? credentialKey.value()
+                : credentialCacheService.key(authentication.getName(), authentication.getCredentials().toString());
+        Authentication cached = credentialCacheService.get(key);
+        if (cached == null) {
+            cached = delegate.authenticate(authentication);
+            credentialCacheService.put(key, cached);
+        }
+        // Fresh token per request, the cached one is shared and the ProviderManager erases credentials on results
+        return UsernamePasswordAuthenticationToken.authenticated(cached.getPrincipal(), null, cached.getAuthorities());
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+}
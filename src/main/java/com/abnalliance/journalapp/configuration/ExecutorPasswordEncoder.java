@@ -0,0 +1,87 @@
+package com.abnalliance.journalapp.configuration;
+
+import com.abnalliance.journalapp.service.AdmissionControlService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * PasswordEncoder decorator running every encode and verify on the bounded hashing executor of PasswordConfig
+ * - BCrypt concurrency is capped by the executor's threads whatever the number of request threads
+ *   (platform, virtual or bounded elastic), callers only wait
+ * - Each call holds an admission control hashing permit (journal.admission.hashing.max-concurrent) while it
+ *   hashes, so the permit count is the number of hashes in flight, not of requests that will hash at some point
+ * - A full queue fails fast with IllegalStateException instead of piling up; admission control
+ *   normally refuses the request before that
+ * upgradeEncoding only parses the stored hash and stays on the caller's thread.
+ */
+public class ExecutorPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ExecutorService executor;
+    private final AdmissionControlService admissionControlService;
+
+    // admissionControlService may be null outside the application context (tests), no permits are taken then
+    public ExecutorPasswordEncoder(PasswordEncoder delegate, ExecutorService executor, AdmissionControlService admissionControlService) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.admissionControlService = admissionControlService;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T call(Callable<T> task) {
+        if (admissionControlService == null) {
+            return submit(task);
+        }
+        try {
+            admissionControlService.acquireHashing();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a password hashing permit", e);
+        }
+        try {
+            return submit(task);
+        } finally {
+            admissionControlService.releaseHashing();
+        }
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Password hashing queue is full", e);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
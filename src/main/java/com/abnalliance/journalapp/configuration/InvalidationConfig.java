@@ -0,0 +1,38 @@
+package com.abnalliance.journalapp.configuration;
+
+import com.abnalliance.journalapp.service.InMemoryInvalidationTransport;
+import com.abnalliance.journalapp.service.InvalidationTransport;
+import com.abnalliance.journalapp.service.MongoInvalidationTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Transport of the cross-replica cache invalidation bus (journal.invalidation.transport)
+ * - mongo (default): capped collection followed with a tailable cursor
+ * - memory: in-process only, for tests and single-node runs
+ * - none: no bean, InvalidationBus does not publish
+ */
+@Configuration
+public class InvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "journal.invalidation.transport", havingValue = "mongo", matchIfMissing = true)
+    public InvalidationTransport mongoInvalidationTransport(MongoTemplate mongoTemplate,
+                                                            @Value("${journal.invalidation.collection:cache_invalidations}") String collection,
+                                                            @Value("${journal.invalidation.capped-size:16MB}") DataSize cappedSize,
+                                                            @Value("${journal.invalidation.retry-delay:1s}") Duration retryDelay) {
+        return new MongoInvalidationTransport(mongoTemplate, collection, cappedSize.toBytes(), retryDelay);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "journal.invalidation.transport", havingValue = "memory")
+    public InvalidationTransport inMemoryInvalidationTransport() {
+        return new InMemoryInvalidationTransport();
+    }
+}
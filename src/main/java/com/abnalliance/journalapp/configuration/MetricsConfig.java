@@ -0,0 +1,24 @@
+package com.abnalliance.journalapp.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics beyond Spring Boot's defaults (http.server.requests, mongodb.driver.commands, mongodb.driver.pool.*)
+ * The customizer applies to both the blocking and the reactive Mongo client
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MongoCommandMetricsListener mongoCommandMetricsListener(MeterRegistry meterRegistry) {
+        return new MongoCommandMetricsListener(meterRegistry);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoDocumentMetricsCustomizer(MongoCommandMetricsListener listener) {
+        return builder -> builder.addCommandListener(listener);
+    }
+}
@@ -0,0 +1,120 @@
+package com.abnalliance.journalapp.configuration;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mongo command listener adding what the driver's mongodb.driver.commands timer (Spring Boot) does not show
+ * - journal.mongo.documents{command, collection}: documents returned (cursor batches, findAndModify) or written (n)
+ * - per-request totals for MongoRequestMetricsFilter: how many round trips and documents one HTTP request caused,
+ *   which is where N+1 patterns (one fetch per DBRef, per-entry lookups) show up
+ * Per-request counting relies on the sync driver firing events on the calling thread; the reactive driver's
+ * commands only feed the global meters.
+ */
+public class MongoCommandMetricsListener implements CommandListener {
+
+    private static final ThreadLocal<RequestStats> CURRENT_REQUEST = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    // Collection of each in-flight command, succeeded events only carry the command name
+    private final Map<Integer, String> collections = new ConcurrentHashMap<>();
+
+    public MongoCommandMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Mongo work done on the current thread between beginRequest and endRequest
+     */
+    public static final class RequestStats {
+        private int commands;
+        private long documents;
+
+        public int getCommands() {
+            return commands;
+        }
+
+        public long getDocuments() {
+            return documents;
+        }
+    }
+
+    public static void beginRequest() {
+        CURRENT_REQUEST.set(new RequestStats());
+    }
+
+    public static RequestStats endRequest() {
+        RequestStats stats = CURRENT_REQUEST.get();
+        CURRENT_REQUEST.remove();
+        return stats;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonValue collection = event.getCommand().get(event.getCommandName());
+        collections.put(event.getRequestId(), collection != null && collection.isString() ? collection.asString().getValue() : "none");
+        RequestStats stats = CURRENT_REQUEST.get();
+        if (stats != null) {
+            stats.commands++;
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String collection = collections.remove(event.getRequestId());
+        long documents = documents(event.getCommandName(), event.getResponse());
+        if (documents < 0) {
+            return;
+        }
+        DistributionSummary.builder("journal.mongo.documents")
+                .description("Documents returned or written per Mongo command")
+                .tag("command", event.getCommandName())
+                .tag("collection", collection != null ? collection : "none")
+                .register(meterRegistry)
+                .record(documents);
+        RequestStats stats = CURRENT_REQUEST.get();
+        if (stats != null) {
+            stats.documents += documents;
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        collections.remove(event.getRequestId());
+    }
+
+    // Documents in the reply, -1 for commands that neither read nor write documents (hello, endSessions, ...)
+    static long documents(String commandName, BsonDocument response) {
+        switch (commandName) {
+            case "find", "getMore", "aggregate" -> {
+                BsonDocument cursor = response.getDocument("cursor", null);
+                if (cursor == null) {
+                    return 0;
+                }
+                BsonArray batch = cursor.containsKey("firstBatch") ? cursor.getArray("firstBatch") : cursor.getArray("nextBatch", null);
+                return batch != null ? batch.size() : 0;
+            }
+            case "findAndModify" -> {
+                BsonValue value = response.get("value");
+                return value != null && value.isDocument() ? 1 : 0;
+            }
+            case "insert", "update", "delete" -> {
+                BsonValue n = response.get("n");
+                return n != null && n.isNumber() ? n.asNumber().longValue() : 0;
+            }
+            default -> {
+                return -1;
+            }
+        }
+    }
+}
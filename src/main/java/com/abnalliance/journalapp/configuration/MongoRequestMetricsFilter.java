@@ -0,0 +1,54 @@
+package com.abnalliance.journalapp.configuration;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records the Mongo work of each HTTP request, tagged like http.server.requests (method + uri template)
+ * - journal.mongo.request.commands: Mongo round trips per request
+ * - journal.mongo.request.documents: documents read or written per request
+ * Streamed bodies (/journal/stream, /admin/users/stream) are written after this filter returns and are not counted.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MongoRequestMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        MongoCommandMetricsListener.beginRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MongoCommandMetricsListener.RequestStats stats = MongoCommandMetricsListener.endRequest();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            summary("journal.mongo.request.commands", "Mongo commands per HTTP request", request.getMethod(), uri)
+                    .record(stats.getCommands());
+            summary("journal.mongo.request.documents", "Mongo documents per HTTP request", request.getMethod(), uri)
+                    .record(stats.getDocuments());
+        }
+    }
+
+    private DistributionSummary summary(String name, String description, String method, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry);
+    }
+}
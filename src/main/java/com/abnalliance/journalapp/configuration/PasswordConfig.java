@@ -0,0 +1,127 @@
+package com.abnalliance.journalapp.configuration;
+
+import com.abnalliance.journalapp.service.AdmissionControlService;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Password hashing shared by the servlet (SpringSecurity) and reactive (ReactiveSecurity) stacks
+ * - New hashes are "{bcrypt}" prefixed, with the configured cost or, when journal.password.bcrypt-strength is 0,
+ *   the highest cost within min/max-strength that stays under target-latency on this machine (measured at startup)
+ * - Hashes stored before the prefix are plain BCrypt: they still verify, and like hashes with a lower cost they are
+ *   reported by upgradeEncoding and rehashed after the next successful login (UserDetailServiceImp.updatePassword)
+ * - All hashing runs on one bounded executor (ExecutorPasswordEncoder), each hash holding an admission control permit
+ * Replicas calibrate independently: pin bcrypt-strength when they run on different hardware.
+ */
+@Configuration
+@Slf4j
+public class PasswordConfig {
+
+    private static final String BCRYPT = "bcrypt";
+
+    @Value("${journal.password.bcrypt-strength:0}")
+    private int strength;
+
+    @Value("${journal.password.target-latency:250ms}")
+    private Duration targetLatency;
+
+    @Value("${journal.password.min-strength:10}")
+    private int minStrength;
+
+    @Value("${journal.password.max-strength:14}")
+    private int maxStrength;
+
+    @Value("${journal.password.threads:0}")
+    private int threads;
+
+    @Value("${journal.password.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Autowired
+    private AdmissionControlService admissionControlService;
+
+    private PasswordEncoder hashing;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        int cost = strength > 0 ? strength : calibrate(targetLatency, minStrength, maxStrength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT, Map.of(BCRYPT, new BCryptPasswordEncoder(cost)));
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        hashing = delegating;
+
+        // BCrypt is CPU bound, more threads than cores only slows every hash down
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Metrics.gauge("journal.password.executor.queued", executor, pool -> pool.getQueue().size());
+        Metrics.gauge("journal.password.executor.active", executor, ThreadPoolExecutor::getActiveCount);
+        log.info("Password hashing: bcrypt cost {}{}, {} threads", cost, strength > 0 ? "" : " (calibrated)", poolSize);
+    }
+
+    @Bean
+    @Primary
+    public PasswordEncoder passwordEncoder() {
+        // Used by login and Basic auth, timed as journal.password.*{path=authentication}
+        return new ExecutorPasswordEncoder(new TimedPasswordEncoder(hashing, "authentication"), executor, admissionControlService);
+    }
+
+    @Bean
+    public PasswordEncoder registrationPasswordEncoder() {
+        // Used by UserService for registration and password changes, timed as journal.password.*{path=registration}
+        return new ExecutorPasswordEncoder(new TimedPasswordEncoder(hashing, "registration"), executor, admissionControlService);
+    }
+
+    /**
+     * Highest BCrypt cost in [minStrength, maxStrength] whose encode time stays within target;
+     * each cost step doubles the work, so a step is only taken when twice the last measurement still fits
+     */
+    static int calibrate(Duration target, int minStrength, int maxStrength) {
+        // Warm-up, the first hashes run interpreted
+        new BCryptPasswordEncoder(4).encode("calibration");
+        new BCryptPasswordEncoder(4).encode("calibration");
+        int cost = minStrength;
+        long elapsed = timeEncode(cost);
+        while (cost < maxStrength && elapsed * 2 <= target.toNanos()) {
+            cost++;
+            elapsed = timeEncode(cost);
+        }
+        log.info("Calibrated bcrypt cost {}: {} ms per hash (target {} ms)", cost,
+                TimeUnit.NANOSECONDS.toMillis(elapsed), target.toMillis());
+        return cost;
+    }
+
+    private static long timeEncode(int cost) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        long start = System.nanoTime();
+        encoder.encode("calibration");
+        return System.nanoTime() - start;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
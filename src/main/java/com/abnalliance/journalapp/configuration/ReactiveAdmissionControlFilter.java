@@ -0,0 +1,64 @@
+package com.abnalliance.journalapp.configuration;
+
+import com.abnalliance.journalapp.service.AdmissionControlService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Reactive counterpart of AdmissionControlFilter, placed before HTTP Basic: source bucket and BCrypt concurrency limit,
+ * the per-user bucket is ReactiveUserRateLimitFilter's.
+ * Not a @Component on purpose: it must only run inside the security filter chain.
+ */
+public class ReactiveAdmissionControlFilter implements WebFilter {
+
+    private final AdmissionControlService admissionControlService;
+
+    public ReactiveAdmissionControlFilter(AdmissionControlService admissionControlService) {
+        this.admissionControlService = admissionControlService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().pathWithinApplication().value();
+        if (!admissionControlService.isEnabled() || admissionControlService.isExempt(path)) {
+            return chain.filter(exchange);
+        }
+
+        // Rewritten from X-Forwarded-For when server.forward-headers-strategy is set (see application-reactive.yml)
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String source = remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : null;
+        long retryAfter = admissionControlService.checkSourceRate(source);
+        if (retryAfter > 0) {
+            return reject(exchange.getResponse(), retryAfter);
+        }
+
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        String credentialKey = admissionControlService.credentialKey(authorization);
+        if (admissionControlService.requiresHashing(request.getMethod().name(), path, authorization, credentialKey)
+                && admissionControlService.isHashingSaturated()) {
+            return reject(exchange.getResponse(), admissionControlService.getHashingRetryAfterSeconds());
+        }
+        // Basic authentication (ReactiveSecurity's authentication manager) reads the key from the subscriber context
+        return credentialKey != null
+                ? chain.filter(exchange).contextWrite(Context.of(CachingAuthenticationProvider.KEY_ATTRIBUTE, credentialKey))
+                : chain.filter(exchange);
+    }
+
+    static Mono<Void> reject(ServerHttpResponse response, long retryAfterSeconds) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return response.setComplete();
+    }
+}
@@ -0,0 +1,75 @@
+package com.abnalliance.journalapp.configuration;
+
+import com.abnalliance.journalapp.service.AdmissionControlService;
+import com.abnalliance.journalapp.service.TokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManagerAdapter;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Security rules of SpringSecurity for the reactive profile: same route rules, bearer tokens, optional Basic
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurity {
+
+    @Value("${journal.security.basic-auth-enabled:true}")
+    private boolean basicAuthEnabled;
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, TokenService tokenService,
+                                                         ReactiveAuthenticationManager authenticationManager,
+                                                         AdmissionControlService admissionControlService) {
+        http.authorizeExchange(exchange -> exchange
+                        .pathMatchers("/public/**").permitAll()
+                        .pathMatchers("/journal/**", "/user/**").authenticated()
+                        .pathMatchers("/admin/**").hasRole("ADMIN")
+                        .pathMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .pathMatchers("/actuator/**").hasRole("ADMIN")
+                        .anyExchange().authenticated())
+                .addFilterAt(new ReactiveTokenAuthenticationFilter(tokenService), SecurityWebFiltersOrder.AUTHENTICATION)
+                .addFilterBefore(new ReactiveAdmissionControlFilter(admissionControlService), SecurityWebFiltersOrder.HTTP_BASIC)
+                .addFilterBefore(new ReactiveUserRateLimitFilter(admissionControlService), SecurityWebFiltersOrder.AUTHORIZATION)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authenticationManager(authenticationManager)
+                .csrf(ServerHttpSecurity.CsrfSpec::disable);
+
+        if (basicAuthEnabled) {
+            http.httpBasic(basic -> basic.securityContextRepository(NoOpServerSecurityContextRepository.getInstance()));
+        } else {
+            http.httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                    .exceptionHandling(exceptions -> exceptions
+                            .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)));
+        }
+        return http.build();
+    }
+
+    // Basic credentials go through the same cached provider as the servlet stack,
+    // the adapter runs it (user lookup + BCrypt on a miss) on the bounded elastic scheduler, never on the event loop.
+    // The credential key ReactiveAdmissionControlFilter computed travels in the subscriber context and is set as details
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(CachingAuthenticationProvider cachingAuthenticationProvider) {
+        ReactiveAuthenticationManager adapter = new ReactiveAuthenticationManagerAdapter(new ProviderManager(cachingAuthenticationProvider));
+        return authentication -> Mono.deferContextual(context -> {
+            String credentialKey = context.getOrDefault(CachingAuthenticationProvider.KEY_ATTRIBUTE, null);
+            if (credentialKey != null && authentication instanceof AbstractAuthenticationToken token) {
+                token.setDetails(new CachingAuthenticationProvider.CredentialKey(credentialKey));
+            }
+            return adapter.authenticate(authentication);
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package com.abnalliance.journalapp.configuration;
+
+import com.abnalliance.journalapp.service.TokenService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of TokenAuthenticationFilter: same bearer validation (signature + expiry, CPU only),
+ * with the authentication handed down through the subscriber context instead of a ThreadLocal
+ * Not a @Component on purpose: it must only run inside the security filter chain.
+ */
+@Slf4j
+public class ReactiveTokenAuthenticationFilter implements WebFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public ReactiveTokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            Authentication authentication;
+            try {
+                authentication = tokenService.authenticate(header.substring(BEARER_PREFIX.length()));
+            } catch (AuthenticationException e) {
+                // Invalid tokens leave the request unauthenticated, protected routes answer 401 as usual
+                log.debug("Rejected bearer token: {}", e.getMessage());
+                return chain.filter(exchange);
+            }
+            return chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+        }
+        return chain.filter(exchange);
+    }
+}
@@ -0,0 +1,42 @@
+package com.abnalliance.journalapp.configuration;
+
+import com.abnalliance.journalapp.service.AdmissionControlService;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of UserRateLimitFilter, placed before authorization: bearer and Basic authentication
+ * have written the principal into the subscriber context by then; anonymous exchanges pass.
+ * Not a @Component on purpose: it must only run inside the security filter chain.
+ */
+public class ReactiveUserRateLimitFilter implements WebFilter {
+
+    private final AdmissionControlService admissionControlService;
+
+    public ReactiveUserRateLimitFilter(AdmissionControlService admissionControlService) {
+        this.admissionControlService = admissionControlService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!admissionControlService.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(authentication -> authentication.isAuthenticated()
+                        && !(authentication instanceof AnonymousAuthenticationToken))
+                .map(Authentication::getName)
+                .map(admissionControlService::checkUserRate)
+                .defaultIfEmpty(0L)
+                .flatMap(retryAfter -> retryAfter > 0
+                        ? ReactiveAdmissionControlFilter.reject(exchange.getResponse(), retryAfter)
+                        : chain.filter(exchange));
+    }
+}
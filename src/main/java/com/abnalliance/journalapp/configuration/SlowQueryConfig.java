@@ -0,0 +1,19 @@
+package com.abnalliance.journalapp.configuration;
+
+import com.abnalliance.journalapp.service.SlowQueryService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Registers the slow-query detector on the Mongo clients, journal.slow-query.enabled=false turns it off entirely
+@Configuration
+@ConditionalOnProperty(name = "journal.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowQueryCustomizer(SlowQueryService slowQueryService) {
+        SlowQueryListener listener = new SlowQueryListener(slowQueryService);
+        return builder -> builder.addCommandListener(listener);
+    }
+}
@@ -0,0 +1,62 @@
+package com.abnalliance.journalapp.configuration;
+
+import com.abnalliance.journalapp.service.SlowQueryService;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports Mongo commands slower than journal.slow-query.threshold to SlowQueryService
+ * A started command keeps its collection name and, when explainable, a copy of its query part only (the driver
+ * reuses the event's buffer after the callback); inserts and update bodies are never copied, and the copy is
+ * dropped as soon as the command turns out fast
+ */
+public class SlowQueryListener implements CommandListener {
+
+    private final SlowQueryService slowQueryService;
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+
+    private record Started(String database, String collection, BsonDocument queryPart) {}
+
+    public SlowQueryListener(SlowQueryService slowQueryService) {
+        this.slowQueryService = slowQueryService;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String commandName = event.getCommandName();
+        // Our own explains are not reported
+        if ("explain".equals(commandName)) {
+            return;
+        }
+        BsonDocument command = event.getCommand();
+        BsonValue collectionName = command.get(commandName);
+        String collection = collectionName != null && collectionName.isString() ? collectionName.asString().getValue() : "none";
+        inFlight.put(event.getRequestId(), new Started(event.getDatabaseName(), collection,
+                SlowQueryService.copyQueryPart(commandName, command)));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        long durationMs = event.getElapsedTime(TimeUnit.MILLISECONDS);
+        if (durationMs >= slowQueryService.getThresholdMillis()) {
+            slowQueryService.record(started.database(), started.collection(), event.getCommandName(), started.queryPart(), durationMs);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        inFlight.remove(event.getRequestId());
+    }
+}
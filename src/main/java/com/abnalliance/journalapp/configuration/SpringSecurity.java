@@ -1,33 +1,56 @@
 package com.abnalliance.journalapp.configuration;
 
+import com.abnalliance.journalapp.service.AdmissionControlService;
+import com.abnalliance.journalapp.service.TokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.config.Customizer;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET) // ReactiveSecurity covers the reactive profile
 public class SpringSecurity {
 
+    // Basic auth stays available while clients migrate to bearer tokens from /public/login
+    @Value("${journal.security.basic-auth-enabled:true}")
+    private boolean basicAuthEnabled;
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        return http.authorizeHttpRequests(request -> request
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenService tokenService,
+                                                   AdmissionControlService admissionControlService) throws Exception {
+        http.authorizeHttpRequests(request -> request
                         .requestMatchers("/public/**").permitAll()
                         .requestMatchers("/journal/**", "/user/**").authenticated()
                         .requestMatchers("/admin/**").hasRole("ADMIN")
+                        // Health stays open for probes, metrics (Prometheus scrape) need an ADMIN account
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
-                .httpBasic(Customizer.withDefaults())
-                .csrf(AbstractHttpConfigurer::disable)
-                .build();
-    }
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), BasicAuthenticationFilter.class)
+                // 429 before Basic authentication does its user lookup + BCrypt, per-user limit once the principal is known
+                .addFilterAfter(new AdmissionControlFilter(admissionControlService), TokenAuthenticationFilter.class)
+                .addFilterAfter(new UserRateLimitFilter(admissionControlService), BasicAuthenticationFilter.class)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .csrf(AbstractHttpConfigurer::disable);
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        if (basicAuthEnabled) {
+            // Details carry the credential cache key AdmissionControlFilter computed for this request
+            http.httpBasic(basic -> basic.authenticationDetailsSource(request -> new CachingAuthenticationProvider.CredentialKey(
+                    (String) request.getAttribute(CachingAuthenticationProvider.KEY_ATTRIBUTE))));
+        } else {
+            http.httpBasic(AbstractHttpConfigurer::disable)
+                    .exceptionHandling(exceptions -> exceptions
+                            .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)));
+        }
+        return http.build();
     }
 }
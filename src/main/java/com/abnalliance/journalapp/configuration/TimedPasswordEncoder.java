@@ -0,0 +1,58 @@
+package com.abnalliance.journalapp.configuration;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PasswordEncoder decorator timing every encode and verify
+ * - journal.password.encode{path}: hashing a new password
+ * - journal.password.verify{path, result}: checking a password against a stored hash
+ * path tells the callers apart ("registration" in UserService, "authentication" for login and Basic auth).
+ * Meters live in the global registry, which Spring Boot links to its own, so this also works outside the context.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchedTimer;
+    private final Timer mismatchedTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, String path) {
+        this.delegate = delegate;
+        this.encodeTimer = Timer.builder("journal.password.encode")
+                .description("Password hashing time")
+                .tag("path", path)
+                .register(Metrics.globalRegistry);
+        this.matchedTimer = verifyTimer(path, "matched");
+        this.mismatchedTimer = verifyTimer(path, "mismatched");
+    }
+
+    private static Timer verifyTimer(String path, String result) {
+        return Timer.builder("journal.password.verify")
+                .description("Password verification time")
+                .tag("path", path)
+                .tag("result", result)
+                .register(Metrics.globalRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        (matches ? matchedTimer : mismatchedTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,56 @@
+package com.abnalliance.journalapp.configuration;
+
+import com.abnalliance.journalapp.service.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates "Authorization: Bearer <access token>" requests
+ * Validation is signature + expiry only (CPU), no Mongo read and no BCrypt per request.
+ * Invalid tokens leave the request unauthenticated, so protected routes answer 401 as usual.
+ * Not a @Component on purpose: it must only run inside the security filter chain.
+ */
+@Slf4j
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            try {
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(tokenService.authenticate(header.substring(BEARER_PREFIX.length())));
+                SecurityContextHolder.setContext(context);
+            } catch (AuthenticationException e) {
+                log.debug("Rejected bearer token: {}", e.getMessage());
+                SecurityContextHolder.clearContext();
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // Re-authenticate on the async dispatch of streamed responses (e.g. /journal/stream), nothing is stored in a session
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+}
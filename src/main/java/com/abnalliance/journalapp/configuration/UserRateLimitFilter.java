@@ -0,0 +1,43 @@
+package com.abnalliance.journalapp.configuration;
+
+import com.abnalliance.journalapp.service.AdmissionControlService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Per-user token bucket of AdmissionControlService, placed after BasicAuthenticationFilter so that both bearer
+ * and Basic requests are limited by their authenticated principal; anonymous requests pass, AdmissionControlFilter
+ * already took their source token.
+ * Not a @Component on purpose: it must only run inside the security filter chain.
+ */
+public class UserRateLimitFilter extends OncePerRequestFilter {
+
+    private final AdmissionControlService admissionControlService;
+
+    public UserRateLimitFilter(AdmissionControlService admissionControlService) {
+        this.admissionControlService = admissionControlService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (admissionControlService.isEnabled() && authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            long retryAfter = admissionControlService.checkUserRate(authentication.getName());
+            if (retryAfter > 0) {
+                AdmissionControlFilter.reject(response, retryAfter);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
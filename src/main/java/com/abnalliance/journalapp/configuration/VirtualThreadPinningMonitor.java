@@ -0,0 +1,61 @@
+package com.abnalliance.journalapp.configuration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Logs virtual threads that stay pinned to their carrier (blocking inside synchronized or native frames)
+ * Streams the JDK's jdk.VirtualThreadPinned JFR event in-process, so no external JFR tooling is needed.
+ * Only active with journal.virtual-threads.pinning-diagnostics=true (set by the virtual-threads profile).
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "journal.virtual-threads.pinning-diagnostics", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    @Value("${journal.virtual-threads.pinning-threshold:20ms}")
+    private Duration threshold;
+
+    @Value("${journal.virtual-threads.pinning-stack-depth:12}")
+    private int stackDepth;
+
+    private RecordingStream recordingStream;
+
+    @PostConstruct
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent("jdk.VirtualThreadPinned", event ->
+                log.warn("Virtual thread pinned for {} ms at:\n{}", event.getDuration().toMillis(), format(event.getStackTrace())));
+        recordingStream.startAsync();
+        log.info("Virtual thread pinning diagnostics enabled (threshold {} ms)", threshold.toMillis());
+    }
+
+    private String format(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "  <no stack trace>";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(stackDepth)
+                .map(RecordedFrame::toString)
+                .map(frame -> "  at " + frame.strip())
+                .collect(Collectors.joining("\n"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+}
@@ -1,28 +1,99 @@
 package com.abnalliance.journalapp.controller;
 
+import com.abnalliance.journalapp.dto.UserPage;
+import com.abnalliance.journalapp.dto.UserSummary;
 import com.abnalliance.journalapp.entity.Users;
+import com.abnalliance.journalapp.entity.PurgeJob;
+import com.abnalliance.journalapp.service.CredentialCacheService;
+import com.abnalliance.journalapp.service.JournalPurgeService;
+import com.abnalliance.journalapp.service.SlowQueryService;
 import com.abnalliance.journalapp.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @RequestMapping("/admin")
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AdminController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     UserService userService;
 
+    @Autowired
+    CredentialCacheService credentialCacheService;
+
+    @Autowired
+    JournalPurgeService journalPurgeService;
+
+    @Autowired
+    SlowQueryService slowQueryService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${journal.pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${journal.pagination.max-size:100}")
+    private int maxPageSize;
+
     @GetMapping("/all-users")
-    public ResponseEntity<?> getAllUsers(){
-        List<Users> allUsers = userService.getAllUsers();
+    public ResponseEntity<StreamingResponseBody> getAllUsers(){
+        // Same JSON array as before, minus password hashes and journals, written incrementally from a Mongo cursor
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<UserSummary> users = userService.streamUsers(null, null);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                Iterator<UserSummary> iterator = users.iterator();
+                while (iterator.hasNext()) {
+                    objectMapper.writeValue(generator, iterator.next());
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 
-        if(allUsers != null && !allUsers.isEmpty()) {
-            return new ResponseEntity<>(allUsers, HttpStatus.OK);
-        } else return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    @GetMapping("/users")
+    public ResponseEntity<?> getUsersPage(@RequestParam(required = false) String role,
+                                          @RequestParam(required = false) String prefix,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer size){
+        int pageSize = size != null ? Math.max(1, Math.min(size, maxPageSize)) : defaultPageSize;
+        UserPage page = userService.getUsersPage(role, prefix, cursor, pageSize);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/users/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(required = false) String role,
+                                                             @RequestParam(required = false) String prefix){
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<UserSummary> users = userService.streamUsers(role, prefix)) {
+                Iterator<UserSummary> iterator = users.iterator();
+                while (iterator.hasNext()) {
+                    outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    outputStream.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
 
     @PostMapping("/create-admin")
@@ -30,4 +101,42 @@ public class AdminController {
         userService.saveOrUpdateAdmin(user);
         return new ResponseEntity<>(user, HttpStatus.OK);
     }
+
+    @GetMapping("/auth-cache")
+    public ResponseEntity<?> getAuthCacheStats(){
+        CacheStats stats = credentialCacheService.stats();
+        return new ResponseEntity<>(Map.of(
+                "enabled", credentialCacheService.isEnabled(),
+                "size", credentialCacheService.size(),
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "hitRate", stats.hitRate(),
+                "evictions", stats.evictionCount()), HttpStatus.OK);
+    }
+
+    @GetMapping("/purge-jobs")
+    public ResponseEntity<?> getPurgeJobs(){
+        return new ResponseEntity<>(journalPurgeService.getRecentJobs(), HttpStatus.OK);
+    }
+
+    @GetMapping("/purge-jobs/{id}")
+    public ResponseEntity<?> getPurgeJob(@PathVariable ObjectId id){
+        Optional<PurgeJob> job = journalPurgeService.getJob(id);
+        if (job.isPresent()) {
+            return new ResponseEntity<>(job.get(), HttpStatus.OK);
+        }
+        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+
+    @GetMapping("/slow-queries")
+    public ResponseEntity<?> getSlowQueries(){
+        // Newest first, with query shape, duration and (once available) the explain summary
+        return new ResponseEntity<>(slowQueryService.getRecent(), HttpStatus.OK);
+    }
+
+    @DeleteMapping("/slow-queries")
+    public ResponseEntity<?> clearSlowQueries(){
+        slowQueryService.clear();
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
 }
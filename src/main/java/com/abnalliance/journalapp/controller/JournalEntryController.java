@@ -1,29 +1,76 @@
 package com.abnalliance.journalapp.controller;
 
+import com.abnalliance.journalapp.dto.BatchItemResult;
+import com.abnalliance.journalapp.dto.JournalCursor;
+import com.abnalliance.journalapp.dto.JournalPage;
+import com.abnalliance.journalapp.dto.JournalSearchPage;
 import com.abnalliance.journalapp.entity.JournalEntry;
-import com.abnalliance.journalapp.entity.Users;
 import com.abnalliance.journalapp.service.JournalEntryService;
-import com.abnalliance.journalapp.service.UserService;
+import com.abnalliance.journalapp.service.JournalSearchService;
+import com.abnalliance.journalapp.service.JournalWriteBehindService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/journal") // Protected endpoint - requires authentication
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class JournalEntryController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    // Formats a journal can be served in (PayloadFormatConfig), in the converters' order: JSON wins on */*
+    private static final List<Map.Entry<MediaType, String>> FORMATS = List.of(
+            Map.entry(MediaType.APPLICATION_JSON, "json"),
+            Map.entry(MediaType.APPLICATION_CBOR, "cbor"),
+            Map.entry(MediaType.parseMediaType("application/x-jackson-smile"), "smile"));
+
     @Autowired
     private JournalEntryService journalEntryService;
 
     @Autowired
-    private UserService userService;
+    private JournalSearchService journalSearchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ContentNegotiationManager contentNegotiationManager;
+
+    // Present only when journal.write-behind.enabled
+    @Autowired(required = false)
+    private JournalWriteBehindService journalWriteBehindService;
+
+    @Value("${journal.pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${journal.pagination.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${journal.batch.max-size:500}")
+    private int maxBatchSize;
 
     @PostMapping
     public ResponseEntity<?> createEntry(@RequestBody JournalEntry journalEntry) {
@@ -31,40 +78,138 @@ public class JournalEntryController {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userName = authentication.getName();
 
+        // Write-behind: durable in the local log, in Mongo after the next flush (202 instead of 201)
+        if (journalWriteBehindService != null) {
+            Optional<JournalEntry> accepted = journalWriteBehindService.append(journalEntry, userName);
+            if (accepted.isPresent()) {
+                return new ResponseEntity<>(accepted.get(), HttpStatus.ACCEPTED);
+            }
+            // Backlog full: fall back to the synchronous insert
+        }
+
         // Save journal entry and link it to the authenticated user
         journalEntryService.saveJournalEntry(journalEntry, userName);
         return new ResponseEntity<>(journalEntry, HttpStatus.CREATED);
     }
 
+    @PostMapping("batch")
+    public ResponseEntity<?> createEntries(@RequestBody List<JournalEntry> journalEntries) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userName = authentication.getName();
+
+        // Bounded batch size keeps one request from holding an unbounded bulk write
+        if (journalEntries.isEmpty() || journalEntries.size() > maxBatchSize) {
+            return new ResponseEntity<>("Batch must contain 1 to " + maxBatchSize + " entries", HttpStatus.BAD_REQUEST);
+        }
+
+        // One bulk insert + one link update, per-item results in request order
+        List<BatchItemResult> results = journalEntryService.saveJournalEntries(journalEntries, userName);
+        boolean allCreated = results.stream().allMatch(r -> BatchItemResult.CREATED.equals(r.getStatus()));
+        return new ResponseEntity<>(results, allCreated ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+    }
+
     @GetMapping
-    public ResponseEntity<List<?>> getAllJournalEntriesOfUser() {
+    public ResponseEntity<?> getAllJournalEntriesOfUser(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                        NativeWebRequest webRequest) {
         // Fetch entries only for the authenticated user (security measure)
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userName = authentication.getName();
 
-        // Retrieve user-specific journal entries from their document reference
-        List<JournalEntry> entries = journalEntryService.getAllJournalEntries(userName);
-        return new ResponseEntity<>(entries, HttpStatus.OK);
+        // Cursor is the opaque token returned as nextCursor by the previous page
+        JournalCursor after;
+        try {
+            after = cursor != null ? JournalCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            return new ResponseEntity<>("from must not be after to", HttpStatus.BAD_REQUEST);
+        }
+        // Page size is capped so a single request can never materialize the whole history
+        int pageSize = size != null ? Math.max(1, Math.min(size, maxPageSize)) : defaultPageSize;
+
+        // Version is read before the page: a concurrent write can only make the ETag older than the body, never newer
+        long journalsVersion = journalEntryService.getJournalsVersion(userName);
+        String etag = weakEtag(journalsVersion, format(webRequest));
+        if (matches(ifNoneMatch, etag)) {
+            // The page is never queried
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+
+        // Retrieve one page of user-specific journal entries via the owner index
+        // The cached page is keyed by that version too, so the body is never older than the ETag
+        JournalPage page = journalEntryService.getJournalEntriesPage(userName, after, pageSize, from, to, journalsVersion);
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag).varyBy(HttpHeaders.ACCEPT).body(page);
+    }
+
+    @GetMapping("search")
+    public ResponseEntity<?> searchJournalEntriesOfUser(@RequestParam String q,
+                                                        @RequestParam(defaultValue = "0") int page,
+                                                        @RequestParam(required = false) Integer size) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userName = authentication.getName();
+
+        if (q.isBlank() || page < 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        int pageSize = size != null ? Math.max(1, Math.min(size, maxPageSize)) : defaultPageSize;
+
+        // Ranked hits with highlighted snippets, scoped to the authenticated user's own entries
+        JournalSearchPage results = journalSearchService.search(userName, q, page, pageSize);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    @GetMapping(value = "stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllJournalEntriesOfUser(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        // Resolve user on the request thread, the body is written later on an async thread
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userName = authentication.getName();
+
+        // Entries are written one per line as they come off the Mongo cursor, nothing is buffered
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<JournalEntry> entries = journalEntryService.streamJournalEntries(userName, from, to)) {
+                Iterator<JournalEntry> iterator = entries.iterator();
+                while (iterator.hasNext()) {
+                    outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    outputStream.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
 
     @GetMapping("id/{myId}")
-    public ResponseEntity<?> getSpecificJournal(@PathVariable ObjectId myId) {
+    public ResponseEntity<?> getSpecificJournal(@PathVariable ObjectId myId,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                NativeWebRequest webRequest) {
         // Verify user owns this journal entry before returning it
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userName = authentication.getName();
-        Users user = userService.getSpecificUserByUsername(userName);
-
-        // Security check: Ensure requested journal belongs to authenticated user
-        List<JournalEntry> associatedEntry = user.getJournalEntries().stream()
-                .filter(x -> x.getId().equals(myId))
-                .collect(Collectors.toList());
-
-        if (!associatedEntry.isEmpty()) {
-            // User owns this entry, fetch full details from journal collection
-            Optional<JournalEntry> specificEntryById = journalEntryService.getSpecificEntryById(myId);
-            if (specificEntryById.isPresent()) {
-                return new ResponseEntity<>(specificEntryById.get(), HttpStatus.OK);
+
+        String format = format(webRequest);
+        // Revalidation reads only the version, the entry is loaded and serialized only when it changed
+        if (ifNoneMatch != null) {
+            Optional<Long> version = journalEntryService.getEntryVersion(myId, userName);
+            if (version.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
             }
+            String etag = etag(version.get(), format);
+            if (matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+
+        // Security check: the owner id is part of the query, so only the user's own entry can match
+        Optional<JournalEntry> specificEntry = journalEntryService.getSpecificEntryOfUser(myId, userName);
+        if (specificEntry.isPresent()) {
+            return ResponseEntity.status(HttpStatus.OK).eTag(etag(specificEntry.get().getVersion(), format))
+                    .varyBy(HttpHeaders.ACCEPT).body(specificEntry.get());
         }
         return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
@@ -75,10 +220,10 @@ public class JournalEntryController {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userName = authentication.getName();
 
-        // Check if journal exists before attempting deletion
-        Optional<JournalEntry> entry = journalEntryService.getSpecificEntryById(myId);
+        // Check if journal exists and belongs to the user before attempting deletion
+        Optional<JournalEntry> entry = journalEntryService.getSpecificEntryOfUser(myId, userName);
         if (entry.isPresent()) {
-            // Delete from both journal collection and user's reference list
+            // Delete from journal collection (owner id is part of the delete filter)
             journalEntryService.deleteSpecificEntryById(myId, userName);
             return new ResponseEntity<>("The record with id :" + myId + " has been successfully deleted.", HttpStatus.NO_CONTENT);
         }
@@ -86,32 +231,106 @@ public class JournalEntryController {
     }
 
     @PutMapping("id/{myId}")
-    public ResponseEntity<?> updateSpecificJournal(@PathVariable ObjectId myId, @RequestBody JournalEntry journalEntry) {
+    public ResponseEntity<?> updateSpecificJournal(@PathVariable ObjectId myId, @RequestBody JournalEntry journalEntry,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                   NativeWebRequest webRequest) {
+        // PUT keeps its historical semantics (empty title/content keep the old value), which is exactly a patch
+        return patchSpecificJournal(myId, journalEntry, ifMatch, webRequest);
+    }
+
+    @PatchMapping("id/{myId}")
+    public ResponseEntity<?> patchSpecificJournal(@PathVariable ObjectId myId, @RequestBody JournalEntry journalEntry,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                  NativeWebRequest webRequest) {
         // Get authenticated user
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userName = authentication.getName();
-        Users user = userService.getSpecificUserByUsername(userName);
 
-        // Check ownership
-        boolean userOwnsEntry = user.getJournalEntries().stream()
-                .anyMatch(entry -> entry.getId().equals(myId));
+        // Ownership check, version check (If-Match), field-level update and read-back in one conditional update
+        List<Long> expectedVersions = expectedVersions(ifMatch);
+        Optional<JournalEntry> updated = journalEntryService.patchJournalEntry(myId, journalEntry, userName, expectedVersions);
+        if (updated.isPresent()) {
+            return ResponseEntity.status(HttpStatus.OK).eTag(etag(updated.get().getVersion(), format(webRequest)))
+                    .varyBy(HttpHeaders.ACCEPT).body(updated.get());
+        }
+        // Conditional update did not match: 412 if the entry is there (someone else changed it), 404 otherwise
+        if (expectedVersions != null && journalEntryService.getEntryVersion(myId, userName).isPresent()) {
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+        }
+        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+
+    // Strong ETag of one representation of an entry version: the same version in JSON and CBOR are different bytes.
+    // Tomcat does not gzip responses with a strong ETag, so the tag never stands for two content codings either
+    private static String etag(long version, String format) {
+        return "\"" + version + "-" + format + "\"";
+    }
+
+    // Weak ETag of the journal listing: only used for revalidation, and lets server.compression gzip the pages.
+    // Still format-qualified: weak comparison ignores W/, so a JSON listing's tag must not revalidate a CBOR request
+    private static String weakEtag(long version, String format) {
+        return "W/\"" + version + "-" + format + "\"";
+    }
 
-        if (!userOwnsEntry) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    // Format the message converters will write for this request's Accept header, JSON when none is acceptable
+    private String format(NativeWebRequest webRequest) {
+        try {
+            for (MediaType requested : contentNegotiationManager.resolveMediaTypes(webRequest)) {
+                for (Map.Entry<MediaType, String> format : FORMATS) {
+                    if (requested.isCompatibleWith(format.getKey())) {
+                        return format.getValue();
+                    }
+                }
+            }
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            // Malformed Accept header, the response will not be written as a journal anyway
         }
+        return FORMATS.get(0).getValue();
+    }
 
-        // Proceed with update if ownership confirmed
-        Optional<JournalEntry> oldEntry = journalEntryService.getSpecificEntryById(myId);
-        if (oldEntry.isPresent()) {
-            JournalEntry old = oldEntry.get();
-            old.setTitle(journalEntry.getTitle() != null && !journalEntry.getTitle().isEmpty()
-                    ? journalEntry.getTitle() : old.getTitle());
-            old.setContent(journalEntry.getContent() != null && !journalEntry.getContent().isEmpty()
-                    ? journalEntry.getContent() : old.getContent());
+    // If-None-Match uses weak comparison: a W/ prefix is ignored on both sides, "*" matches any current representation
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-            journalEntryService.saveJournalEntry(old);
-            return new ResponseEntity<>(old, HttpStatus.OK);
+    // Versions accepted by an If-Match header (strong comparison), null when absent or "*" (unconditional)
+    // Any format's tag of a version (and the bare version) names that version: the update does not depend on the format
+    // Weak or malformed tags never match, so they yield an empty list and the update answers 412
+    private static List<Long> expectedVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
         }
-        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        List<Long> versions = new ArrayList<>();
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                String opaqueTag = tag.substring(1, tag.length() - 1);
+                for (Map.Entry<MediaType, String> format : FORMATS) {
+                    if (opaqueTag.endsWith("-" + format.getValue())) {
+                        opaqueTag = opaqueTag.substring(0, opaqueTag.length() - format.getValue().length() - 1);
+                        break;
+                    }
+                }
+                try {
+                    versions.add(Long.parseLong(opaqueTag));
+                } catch (NumberFormatException ignored) {
+                    // Not one of ours, cannot match
+                }
+            }
+        }
+        return versions;
     }
-}
\ No newline at end of file
+}
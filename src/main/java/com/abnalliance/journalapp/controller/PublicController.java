@@ -1,10 +1,15 @@
 package com.abnalliance.journalapp.controller;
 
+import com.abnalliance.journalapp.dto.LoginRequest;
+import com.abnalliance.journalapp.dto.RefreshRequest;
 import com.abnalliance.journalapp.entity.Users;
+import com.abnalliance.journalapp.service.TokenService;
 import com.abnalliance.journalapp.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -12,11 +17,15 @@ import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/public") // Open endpoint - no authentication required
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PublicController {
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TokenService tokenService;
+
     @PostMapping("/create-user")
     public ResponseEntity<?> createUser(@RequestBody Users user) {
         // NEW USER REGISTRATION FLOW:
@@ -27,4 +36,23 @@ public class PublicController {
         userService.saveOrUpdateUser(user);
         return new ResponseEntity<>(user, HttpStatus.CREATED);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/login")
+    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
+        // Password is checked once here, later requests carry the bearer access token instead
+        try {
+            return new ResponseEntity<>(tokenService.login(loginRequest.getUserName(), loginRequest.getPassword()), HttpStatus.OK);
+        } catch (AuthenticationException e) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest refreshRequest) {
+        try {
+            return new ResponseEntity<>(tokenService.refresh(refreshRequest.getRefreshToken()), HttpStatus.OK);
+        } catch (AuthenticationException e) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+    }
+}
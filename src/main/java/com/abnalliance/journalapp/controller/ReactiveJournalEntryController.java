@@ -0,0 +1,149 @@
+package com.abnalliance.journalapp.controller;
+
+import com.abnalliance.journalapp.dto.BatchItemResult;
+import com.abnalliance.journalapp.dto.JournalCursor;
+import com.abnalliance.journalapp.entity.JournalEntry;
+import com.abnalliance.journalapp.service.ReactiveJournalEntryService;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * WebFlux mirror of JournalEntryController, active only in the reactive profile (same routes, statuses and bodies)
+ * Handlers never block: every Mongo call goes through ReactiveJournalEntryService
+ */
+@RestController
+@RequestMapping("/journal") // Protected endpoint - requires authentication
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveJournalEntryController {
+
+    @Autowired
+    private ReactiveJournalEntryService reactiveJournalEntryService;
+
+    @Value("${journal.pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${journal.pagination.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${journal.batch.max-size:500}")
+    private int maxBatchSize;
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> createEntry(@RequestBody JournalEntry journalEntry) {
+        return currentUserName()
+                .flatMap(userName -> reactiveJournalEntryService.saveJournalEntry(journalEntry, userName))
+                .map(saved -> new ResponseEntity<>(saved, HttpStatus.CREATED));
+    }
+
+    @PostMapping("batch")
+    public Mono<ResponseEntity<?>> createEntries(@RequestBody List<JournalEntry> journalEntries) {
+        // Bounded batch size keeps one request from holding an unbounded bulk write
+        if (journalEntries.isEmpty() || journalEntries.size() > maxBatchSize) {
+            return Mono.just(new ResponseEntity<>("Batch must contain 1 to " + maxBatchSize + " entries", HttpStatus.BAD_REQUEST));
+        }
+        return currentUserName()
+                .flatMap(userName -> reactiveJournalEntryService.saveJournalEntries(journalEntries, userName))
+                .map(results -> {
+                    boolean allCreated = results.stream().allMatch(r -> BatchItemResult.CREATED.equals(r.getStatus()));
+                    return new ResponseEntity<>(results, allCreated ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+                });
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<?>> getAllJournalEntriesOfUser(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        JournalCursor after;
+        try {
+            after = cursor != null ? JournalCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return Mono.just(new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST));
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            return Mono.just(new ResponseEntity<>("from must not be after to", HttpStatus.BAD_REQUEST));
+        }
+        int pageSize = size != null ? Math.max(1, Math.min(size, maxPageSize)) : defaultPageSize;
+
+        return currentUserName()
+                .flatMap(userName -> reactiveJournalEntryService.getJournalEntriesPage(userName, after, pageSize, from, to))
+                .map(page -> new ResponseEntity<>(page, HttpStatus.OK));
+    }
+
+    @GetMapping("search")
+    public Mono<ResponseEntity<?>> searchJournalEntriesOfUser(@RequestParam String q,
+                                                              @RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(required = false) Integer size) {
+        if (q.isBlank() || page < 0) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        int pageSize = size != null ? Math.max(1, Math.min(size, maxPageSize)) : defaultPageSize;
+
+        return currentUserName()
+                .flatMap(userName -> reactiveJournalEntryService.search(userName, q, page, pageSize))
+                .map(results -> new ResponseEntity<>(results, HttpStatus.OK));
+    }
+
+    // NDJSON is encoded element by element with backpressure: a slow client slows the Mongo cursor, nothing piles up
+    @GetMapping(value = "stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<JournalEntry> streamAllJournalEntriesOfUser(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return currentUserName()
+                .flatMapMany(userName -> reactiveJournalEntryService.streamJournalEntries(userName, from, to));
+    }
+
+    @GetMapping("id/{myId}")
+    public Mono<ResponseEntity<?>> getSpecificJournal(@PathVariable ObjectId myId) {
+        return currentUserName()
+                .flatMap(userName -> reactiveJournalEntryService.getSpecificEntryOfUser(myId, userName))
+                .<ResponseEntity<?>>map(entry -> new ResponseEntity<>(entry, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @DeleteMapping("id/{myId}")
+    public Mono<ResponseEntity<?>> deleteSpecificJournal(@PathVariable ObjectId myId) {
+        // Owner id is part of the delete filter, nothing is deleted for non-owners
+        return currentUserName()
+                .flatMap(userName -> reactiveJournalEntryService.deleteSpecificEntryById(myId, userName))
+                .map(deleted -> deleted
+                        ? new ResponseEntity<>("The record with id :" + myId + " has been successfully deleted.", HttpStatus.NO_CONTENT)
+                        : new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @PutMapping("id/{myId}")
+    public Mono<ResponseEntity<?>> updateSpecificJournal(@PathVariable ObjectId myId, @RequestBody JournalEntry journalEntry) {
+        // Same semantics as the servlet stack: PUT is a patch
+        return patchSpecificJournal(myId, journalEntry);
+    }
+
+    @PatchMapping("id/{myId}")
+    public Mono<ResponseEntity<?>> patchSpecificJournal(@PathVariable ObjectId myId, @RequestBody JournalEntry journalEntry) {
+        return currentUserName()
+                .flatMap(userName -> reactiveJournalEntryService.patchJournalEntry(myId, journalEntry, userName))
+                .<ResponseEntity<?>>map(updated -> new ResponseEntity<>(updated, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    // Reactive counterpart of SecurityContextHolder: the authentication travels in the subscriber context
+    private Mono<String> currentUserName() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getName);
+    }
+}
@@ -0,0 +1,60 @@
+package com.abnalliance.journalapp.controller;
+
+import com.abnalliance.journalapp.dto.LoginRequest;
+import com.abnalliance.journalapp.dto.RefreshRequest;
+import com.abnalliance.journalapp.entity.Users;
+import com.abnalliance.journalapp.service.TokenService;
+import com.abnalliance.journalapp.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebFlux mirror of PublicController, active only in the reactive profile
+ * Registration and login are dominated by BCrypt (CPU-bound by design), so they reuse the servlet services
+ * on the bounded elastic scheduler instead of running on, and stalling, an event-loop thread
+ */
+@RestController
+@RequestMapping("/public") // Open endpoint - no authentication required
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePublicController {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @PostMapping("/create-user")
+    public Mono<ResponseEntity<?>> createUser(@RequestBody Users user) {
+        return Mono.<ResponseEntity<?>>fromCallable(() -> {
+                    userService.saveOrUpdateUser(user);
+                    return new ResponseEntity<>(user, HttpStatus.CREATED);
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest) {
+        return Mono.fromCallable(() -> tokenService.login(loginRequest.getUserName(), loginRequest.getPassword()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .<ResponseEntity<?>>map(tokens -> new ResponseEntity<>(tokens, HttpStatus.OK))
+                .onErrorResume(AuthenticationException.class, e -> Mono.just(new ResponseEntity<>(HttpStatus.UNAUTHORIZED)));
+    }
+
+    @PostMapping("/refresh")
+    public Mono<ResponseEntity<?>> refresh(@RequestBody RefreshRequest refreshRequest) {
+        return Mono.fromCallable(() -> tokenService.refresh(refreshRequest.getRefreshToken()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .<ResponseEntity<?>>map(tokens -> new ResponseEntity<>(tokens, HttpStatus.OK))
+                .onErrorResume(AuthenticationException.class, e -> Mono.just(new ResponseEntity<>(HttpStatus.UNAUTHORIZED)));
+    }
+}
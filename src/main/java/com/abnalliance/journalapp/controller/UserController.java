@@ -1,16 +1,21 @@
 package com.abnalliance.journalapp.controller;
 
+import com.abnalliance.journalapp.entity.PurgeJob;
 import com.abnalliance.journalapp.entity.Users;
 import com.abnalliance.journalapp.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/user") // Protected endpoint - requires authentication
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserController {
 
     @Autowired
@@ -23,7 +28,7 @@ public class UserController {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userName = authentication.getName();
 
-        // Fetch existing user to preserve journal references
+        // Fetch existing user to preserve its id (journals reference the owner by id)
         Users userInDb = userService.getSpecificUserByUsername(userName);
 
         // Update credentials only
@@ -44,7 +49,11 @@ public class UserController {
         String userName = authentication.getName();
 
         // User can only delete their own account
-        userService.deleteSpecificUserByUsername(userName);
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        // Account is gone right away, journals are purged in the background (job status via /admin/purge-jobs)
+        PurgeJob purgeJob = userService.deleteSpecificUserByUsername(userName);
+        if (purgeJob == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(Map.of("purgeJobId", purgeJob.getId().toHexString()), HttpStatus.ACCEPTED);
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.abnalliance.journalapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of one entry of POST /journal/batch, index is the entry's position in the request
+ * status is CREATED, INVALID (rejected before the write) or FAILED (rejected by the database)
+ */
+@Data
+@AllArgsConstructor
+public class BatchItemResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String INVALID = "INVALID";
+    public static final String FAILED = "FAILED";
+
+    private int index;
+    private String id;
+    private String status;
+    private String error;
+}
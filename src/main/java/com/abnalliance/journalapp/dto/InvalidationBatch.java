@@ -0,0 +1,19 @@
+package com.abnalliance.journalapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Coalesced cache invalidations of one node, as travelling between replicas
+ * users maps a userName to the OR of the invalidated scopes (see InvalidationBus)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvalidationBatch {
+    private String origin;
+    private Map<String, Integer> users;
+}
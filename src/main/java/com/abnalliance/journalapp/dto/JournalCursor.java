@@ -0,0 +1,44 @@
+package com.abnalliance.journalapp.dto;
+
+import com.abnalliance.journalapp.entity.JournalEntry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Keyset position in a user's journal listing, ordered by (date desc, _id desc)
+ * Travels to clients as an opaque URL-safe token: base64("yyyy-MM-dd|objectId")
+ */
+@Data
+@AllArgsConstructor
+public class JournalCursor {
+
+    private LocalDate date;
+    private ObjectId id;
+
+    public static JournalCursor after(JournalEntry lastEntry) {
+        return new JournalCursor(lastEntry.getDate(), lastEntry.getId());
+    }
+
+    public String encode() {
+        String raw = date + "|" + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a token produced by encode(), throws IllegalArgumentException on anything else
+     */
+    public static JournalCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new JournalCursor(LocalDate.parse(raw.substring(0, separator)), new ObjectId(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.abnalliance.journalapp.dto;
+
+import com.abnalliance.journalapp.entity.JournalEntry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a user's journal listing
+ * nextCursor is null on the last page
+ */
+@Data
+@AllArgsConstructor
+public class JournalPage {
+
+    private List<JournalEntry> entries;
+    private String nextCursor;
+}
@@ -0,0 +1,21 @@
+package com.abnalliance.journalapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * One search result: entry metadata, relevance score and a highlighted excerpt instead of the full content
+ * title and snippet are HTML-escaped, matches are wrapped in <em></em>
+ */
+@Data
+@AllArgsConstructor
+public class JournalSearchHit {
+
+    private String id;
+    private String title;
+    private LocalDate date;
+    private float score;
+    private String snippet;
+}
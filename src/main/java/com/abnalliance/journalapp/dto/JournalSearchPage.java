@@ -0,0 +1,19 @@
+package com.abnalliance.journalapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of search hits, ordered by relevance
+ */
+@Data
+@AllArgsConstructor
+public class JournalSearchPage {
+
+    private List<JournalSearchHit> hits;
+    private int page;
+    private int size;
+    private boolean hasMore;
+}
@@ -0,0 +1,28 @@
+package com.abnalliance.journalapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.TextScore;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only mapping of a journal_db document for text search, carries the $text relevance score
+ * Kept apart from JournalEntry so the entity never serializes a score field
+ */
+@Data
+@NoArgsConstructor
+public class JournalSearchResult {
+
+    @Id
+    private ObjectId id;
+
+    private String title;
+    private String content;
+    private LocalDate date;
+
+    @TextScore
+    private Float score;
+}
@@ -0,0 +1,15 @@
+package com.abnalliance.journalapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of POST /public/login
+ */
+@Data
+@NoArgsConstructor
+public class LoginRequest {
+
+    private String userName;
+    private String password;
+}
@@ -0,0 +1,14 @@
+package com.abnalliance.journalapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of POST /public/refresh
+ */
+@Data
+@NoArgsConstructor
+public class RefreshRequest {
+
+    private String refreshToken;
+}
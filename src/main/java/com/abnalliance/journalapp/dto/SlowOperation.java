@@ -0,0 +1,54 @@
+package com.abnalliance.journalapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One Mongo command slower than journal.slow-query.threshold, as listed by GET /admin/slow-queries
+ * shape is the query with every value replaced by "?", so the same query with different values has the same shape.
+ * explainStatus is PENDING (explain queued), DONE, FAILED, SKIPPED (queue full or disabled) or UNSUPPORTED (not explainable).
+ */
+@Data
+@NoArgsConstructor
+public class SlowOperation {
+
+    public static final String PENDING = "PENDING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+    public static final String SKIPPED = "SKIPPED";
+    public static final String UNSUPPORTED = "UNSUPPORTED";
+
+    private long id;
+    private Instant timestamp;
+    private String database;
+    private String collection;
+    private String command;
+    private String shape;
+    private long durationMs;
+    private String explainStatus;
+    private Boolean collectionScan;
+    private List<String> indexes;
+    private Map<String, Object> winningPlan;
+    private String explainError;
+
+    public SlowOperation copy() {
+        SlowOperation copy = new SlowOperation();
+        copy.id = id;
+        copy.timestamp = timestamp;
+        copy.database = database;
+        copy.collection = collection;
+        copy.command = command;
+        copy.shape = shape;
+        copy.durationMs = durationMs;
+        copy.explainStatus = explainStatus;
+        copy.collectionScan = collectionScan;
+        copy.indexes = indexes;
+        copy.winningPlan = winningPlan;
+        copy.explainError = explainError;
+        return copy;
+    }
+}
@@ -0,0 +1,18 @@
+package com.abnalliance.journalapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Tokens issued by POST /public/login and POST /public/refresh
+ * expiresIn is the access token lifetime in seconds
+ */
+@Data
+@AllArgsConstructor
+public class TokenResponse {
+
+    private String accessToken;
+    private String refreshToken;
+    private String tokenType;
+    private long expiresIn;
+}
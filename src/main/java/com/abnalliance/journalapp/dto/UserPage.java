@@ -0,0 +1,18 @@
+package com.abnalliance.journalapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of the admin user listing, ordered by userName
+ * nextCursor (the last userName of the page) is null on the last page
+ */
+@Data
+@AllArgsConstructor
+public class UserPage {
+
+    private List<UserSummary> users;
+    private String nextCursor;
+}
@@ -0,0 +1,24 @@
+package com.abnalliance.journalapp.dto;
+
+import com.abnalliance.journalapp.entity.Users;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Admin view of a user: no password hash, no journals, just the counter
+ */
+@Data
+@AllArgsConstructor
+public class UserSummary {
+
+    private String id;
+    private String userName;
+    private List<String> roles;
+    private long journalCount;
+
+    public static UserSummary of(Users user) {
+        return new UserSummary(user.getId().toHexString(), user.getUserName(), user.getRoles(), user.getJournalCount());
+    }
+}
@@ -1,15 +1,22 @@
 package com.abnalliance.journalapp.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Document(collection = "journal_db") // Maps this class to MongoDB collection
+// Serves keyset pagination of a user's listing: equality on owner, then (date, _id) in listing order
+@CompoundIndex(name = "owner_date_id", def = "{'userId': 1, 'date': -1, '_id': -1}")
+// Full-text search scoped to one owner: equality prefix on userId, then the text keys
+@CompoundIndex(name = "owner_text", def = "{'userId': 1, 'title': 'text', 'content': 'text'}")
 @Data
 @NoArgsConstructor
 public class JournalEntry {
@@ -21,6 +28,15 @@ public class JournalEntry {
     private String title;
 
     private String content;
-    private LocalDate date;
+    private LocalDate date; // Calendar day of the entry, listing and range queries use this
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    // Starts at 1 on insert and is $inc'ed by every edit, served as the strong ETag of the entry
+    private long version;
+
+    // Owner of this entry, no index of its own: owner_date_id and owner_text both lead with it.
+    @JsonIgnore // Always set server-side from the authenticated user, never taken from the request body.
+    private ObjectId userId;
 
 }
@@ -0,0 +1,37 @@
+package com.abnalliance.journalapp.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document(collection = "purge_jobs") // Background purge of a deleted user's journals, persisted so it survives restarts
+@Data
+@NoArgsConstructor
+public class PurgeJob {
+
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    @Id
+    private ObjectId id;
+
+    private ObjectId userId;
+    private String userName;
+
+    @Indexed // Unfinished jobs are looked up by status on startup
+    private String status;
+
+    private long deletedCount;
+    private String error;
+    private int attempts; // Failed runs so far, drives the retry backoff
+    private Instant createdAt;
+    private Instant updatedAt;
+}
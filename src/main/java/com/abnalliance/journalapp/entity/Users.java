@@ -6,10 +6,8 @@ import lombok.NonNull;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.Indexed;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "users")
@@ -28,8 +26,13 @@ public class Users {
     @NonNull // This annotation will ensure that password can't be null.
     private String password;
 
-    @DBRef // Here this annotation will establish reference (link) with JournalEntry.
-    private List<JournalEntry> journalEntries = new ArrayList<>();
+    // Journals are no longer embedded here as DBRefs, each JournalEntry carries its owner's id (JournalEntry.userId).
+    // Only a counter is kept here, adjusted with atomic $inc updates by JournalEntryService.
+    private long journalCount;
+
+    // Version of the user's journal set, bumped on every create, edit and delete of one of their journals.
+    // Weak ETag of the journal listing (W/"<version>-<format>"): revalidation reads only this field.
+    private long journalsVersion;
 
     private List<String> roles;
 }
@@ -4,6 +4,13 @@ import com.abnalliance.journalapp.entity.JournalEntry;
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.List;
+import java.util.Optional;
+
 // Repository interface for JournalEntry collection (CRUD ready via MongoRepository)
 public interface JournalEntryRepository extends MongoRepository<JournalEntry, ObjectId> {
+    // findByUserId is served by the userId prefix of owner_date_id, the by-id lookups by _id
+    public abstract List<JournalEntry> findByUserId(ObjectId userId);
+    public abstract Optional<JournalEntry> findByIdAndUserId(ObjectId id, ObjectId userId);
+    public abstract long deleteByIdAndUserId(ObjectId id, ObjectId userId);
 }
@@ -0,0 +1,14 @@
+package com.abnalliance.journalapp.repository;
+
+import com.abnalliance.journalapp.entity.PurgeJob;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+// Repository interface for purge_jobs collection (CRUD ready via MongoRepository)
+public interface PurgeJobRepository extends MongoRepository<PurgeJob, ObjectId> {
+    public abstract List<PurgeJob> findByStatusIn(Collection<String> statuses);
+    public abstract List<PurgeJob> findTop100ByOrderByCreatedAtDesc();
+}
@@ -0,0 +1,15 @@
+package com.abnalliance.journalapp.repository;
+
+import com.abnalliance.journalapp.entity.JournalEntry;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking counterpart of JournalEntryRepository, used by the reactive stack
+public interface ReactiveJournalEntryRepository extends ReactiveMongoRepository<JournalEntry, ObjectId> {
+    // findByUserId is served by the userId prefix of owner_date_id, the by-id lookups by _id
+    public abstract Flux<JournalEntry> findByUserId(ObjectId userId);
+    public abstract Mono<JournalEntry> findByIdAndUserId(ObjectId id, ObjectId userId);
+    public abstract Mono<Long> deleteByIdAndUserId(ObjectId id, ObjectId userId);
+}
@@ -0,0 +1,16 @@
+package com.abnalliance.journalapp.repository;
+
+import com.abnalliance.journalapp.entity.Users;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+// Non-blocking counterpart of UserRepository, used by the reactive stack
+public interface ReactiveUserRepository extends ReactiveMongoRepository<Users, ObjectId> {
+    public abstract Mono<Users> findByUserName(String userName);
+
+    // Owner resolution for journal operations: only _id, never the full user document
+    @Query(value = "{ 'userName' : ?0 }", fields = "{ '_id' : 1 }")
+    public abstract Mono<Users> findIdByUserName(String userName);
+}
@@ -3,9 +3,32 @@ package com.abnalliance.journalapp.repository;
 import com.abnalliance.journalapp.entity.Users;
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 
 // Repository interface for Users collection (CRUD ready via MongoRepository)
 public interface UserRepository extends MongoRepository<Users, ObjectId> {
     public abstract Users findByUserName(String userName);
     public abstract Users deleteByUserName(String userName);
+
+    // Authentication projection: only the fields a principal needs, served by the unique userName index
+    @Query(value = "{ 'userName' : ?0 }", fields = "{ 'userName' : 1, 'password' : 1, 'roles' : 1 }")
+    public abstract Users findPrincipalByUserName(String userName);
+
+    // Owner resolution for journal operations: only _id, never the full user document
+    @Query(value = "{ 'userName' : ?0 }", fields = "{ '_id' : 1 }")
+    public abstract Users findIdByUserName(String userName);
+
+    // Owner name of a journal known only by owner id (cache invalidation)
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'userName' : 1 }")
+    public abstract Users findUserNameById(ObjectId id);
+
+    // ETag revalidation of the journal listing: only the journal-set version
+    @Query(value = "{ 'userName' : ?0 }", fields = "{ 'journalsVersion' : 1 }")
+    public abstract Users findJournalsVersionByUserName(String userName);
+
+    // Transparent rehash: replaces the hash only while it is still the one that was just verified
+    @Query("{ 'userName' : ?0, 'password' : ?1 }")
+    @Update("{ '$set' : { 'password' : ?2 } }")
+    public abstract long updatePasswordByUserNameAndPassword(String userName, String currentPassword, String newPassword);
 }
@@ -0,0 +1,239 @@
+package com.abnalliance.journalapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control run by the security filters
+ * - Token buckets per client address, checked before any authentication work, and per authenticated user,
+ *   checked once the principal is known; each bucket is one AtomicLong updated by CAS, so admitted requests
+ *   never take a lock. Unauthenticated attempts only spend source tokens: a claimed user name is never a key,
+ *   otherwise anyone could drain another user's bucket with bad credentials
+ * - The client address is the one resolved by server.forward-headers-strategy, so behind a load balancer each
+ *   client gets its own source bucket instead of all sharing the balancer's
+ * - A global concurrency limit on BCrypt: a permit is held by ExecutorPasswordEncoder for the duration of
+ *   each encode or verify only, and requests that will run BCrypt (registration, login, password change,
+ *   Basic credentials not in the credential cache) are refused up front while every permit is taken
+ * - Rejections answer 429 with Retry-After and are counted in journal.admission.rejected{limit}
+ */
+@Service
+@Slf4j
+public class AdmissionControlService {
+
+    private static final String BASIC_PREFIX = "Basic ";
+
+    @Value("${journal.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${journal.admission.user.capacity:40}")
+    private int userCapacity;
+
+    @Value("${journal.admission.user.refill-per-second:20}")
+    private double userRefillPerSecond;
+
+    @Value("${journal.admission.source.capacity:200}")
+    private int sourceCapacity;
+
+    @Value("${journal.admission.source.refill-per-second:100}")
+    private double sourceRefillPerSecond;
+
+    @Value("${journal.admission.max-tracked:100000}")
+    private long maxTracked;
+
+    @Value("${journal.admission.idle-timeout:10m}")
+    private Duration idleTimeout;
+
+    @Value("${journal.admission.hashing.max-concurrent:0}")
+    private int hashingMaxConcurrent;
+
+    @Value("${journal.admission.hashing.retry-after:1s}")
+    private Duration hashingRetryAfter;
+
+    @Value("${journal.admission.hashing.paths:POST /public/create-user,POST /public/login,PUT /user}")
+    private List<String> hashingPaths;
+
+    @Autowired
+    private CredentialCacheService credentialCacheService;
+
+    private Cache<String, TokenBucket> userBuckets;
+    private Cache<String, TokenBucket> sourceBuckets;
+    private Semaphore hashingPermits;
+    private final Set<String> hashingRequests = new HashSet<>();
+
+    @PostConstruct
+    public void init() {
+        // An evicted bucket comes back full, so idle-timeout must exceed the time a bucket takes to refill
+        userBuckets = Caffeine.newBuilder().maximumSize(maxTracked).expireAfterAccess(idleTimeout).build();
+        sourceBuckets = Caffeine.newBuilder().maximumSize(maxTracked).expireAfterAccess(idleTimeout).build();
+
+        // BCrypt is CPU bound: more concurrent hashes than cores only makes every one of them slower
+        int permits = hashingMaxConcurrent > 0 ? hashingMaxConcurrent : Runtime.getRuntime().availableProcessors();
+        hashingPermits = new Semaphore(permits);
+        for (String path : hashingPaths) {
+            hashingRequests.add(path.trim().replaceAll("\\s+", " "));
+        }
+        Metrics.gauge("journal.admission.hashing.in-flight", hashingPermits, semaphore -> permits - semaphore.availablePermits());
+        log.info("Admission control {}: user {}/{}/s, source {}/{}/s, {} concurrent hashing requests",
+                enabled ? "enabled" : "disabled", userCapacity, userRefillPerSecond, sourceCapacity, sourceRefillPerSecond, permits);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Health probes come from one address at a fixed rate and must never be throttled
+    public boolean isExempt(String path) {
+        return path.startsWith("/actuator/health");
+    }
+
+    /**
+     * Takes one token from the client address' bucket (source may be null when the address is unknown)
+     * @return 0 when admitted, otherwise the Retry-After in seconds
+     */
+    public long checkSourceRate(String source) {
+        if (sourceCapacity <= 0 || source == null) {
+            return 0;
+        }
+        long wait = sourceBuckets.get(source, ignored -> new TokenBucket(sourceCapacity, sourceRefillPerSecond)).tryAcquire(System.nanoTime());
+        return wait > 0 ? reject("source", wait) : 0;
+    }
+
+    /**
+     * Takes one token from the bucket of an authenticated user, never call it with an unverified name
+     * @return 0 when admitted, otherwise the Retry-After in seconds
+     */
+    public long checkUserRate(String userName) {
+        if (userCapacity <= 0 || userName == null) {
+            return 0;
+        }
+        long wait = userBuckets.get(userName, ignored -> new TokenBucket(userCapacity, userRefillPerSecond)).tryAcquire(System.nanoTime());
+        return wait > 0 ? reject("user", wait) : 0;
+    }
+
+    /**
+     * Credential cache key of the request's Basic credentials, computed once here and handed to
+     * CachingAuthenticationProvider; null without Basic credentials or with the credential cache disabled
+     */
+    public String credentialKey(String authorization) {
+        if (!credentialCacheService.isEnabled()) {
+            return null;
+        }
+        String[] credentials = basicCredentials(authorization);
+        return credentials != null ? credentialCacheService.key(credentials[0], credentials[1]) : null;
+    }
+
+    /**
+     * Whether the request will run a BCrypt encode or verify (Basic credentials cached by
+     * CachingAuthenticationProvider do not); credentialKey is the one returned by credentialKey(authorization)
+     */
+    public boolean requiresHashing(String method, String path, String authorization, String credentialKey) {
+        if (hashingRequests.contains(method + " " + path)) {
+            return true;
+        }
+        if (credentialKey != null) {
+            return credentialCacheService.get(credentialKey) == null;
+        }
+        // No key: either no Basic credentials, or no credential cache and every Basic request verifies
+        return !credentialCacheService.isEnabled() && basicCredentials(authorization) != null;
+    }
+
+    /**
+     * Non-blocking check made before authentication: a hashing request that finds every permit taken is
+     * rejected rather than queued behind the CPU
+     */
+    public boolean isHashingSaturated() {
+        if (!enabled || hashingPermits.availablePermits() > 0) {
+            return false;
+        }
+        Metrics.counter("journal.admission.rejected", "limit", "hashing").increment();
+        return true;
+    }
+
+    /**
+     * Taken around one encode or verify; only waits when requests admitted at the same moment race for the last permits
+     */
+    public void acquireHashing() throws InterruptedException {
+        if (enabled) {
+            hashingPermits.acquire();
+        }
+    }
+
+    public void releaseHashing() {
+        if (enabled) {
+            hashingPermits.release();
+        }
+    }
+
+    public long getHashingRetryAfterSeconds() {
+        return Math.max(1, hashingRetryAfter.toSeconds());
+    }
+
+    private static String[] basicCredentials(String authorization) {
+        if (authorization == null || !authorization.startsWith(BASIC_PREFIX)) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getDecoder().decode(authorization.substring(BASIC_PREFIX.length()).trim()),
+                    StandardCharsets.UTF_8);
+            int colon = decoded.indexOf(':');
+            return colon > 0 ? new String[]{decoded.substring(0, colon), decoded.substring(colon + 1)} : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private long reject(String limit, long waitNanos) {
+        Metrics.counter("journal.admission.rejected", "limit", limit).increment();
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * Token bucket kept as the instant at which it will be full again (GCRA):
+     * taking a token moves that instant one refill interval forward, and is refused when it would
+     * land more than capacity intervals ahead of now. One CAS per attempt, no lock, no refill thread.
+     */
+    static final class TokenBucket {
+
+        private final long intervalNanos;
+        private final long capacityNanos;
+        private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+        TokenBucket(int capacity, double refillPerSecond) {
+            this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+            this.capacityNanos = intervalNanos * capacity;
+        }
+
+        /**
+         * @return 0 when a token was taken, otherwise the nanoseconds until one is available
+         */
+        long tryAcquire(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long wait = next - now - capacityNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.abnalliance.journalapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Bounded, TTL-based cache of successful credential verifications
+ * - Key is an HMAC-SHA256 of "userName:password", the exact payload of the Basic Authorization header,
+ *   under a random per-process key, so neither passwords nor replayable hashes are ever held in memory
+ * - A hit skips the Mongo user lookup and the BCrypt verify entirely
+ * - Invalidated per user by UserService on credential/role changes and deletion
+ */
+@Service
+@Slf4j
+public class CredentialCacheService {
+
+    @Value("${journal.auth-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${journal.auth-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${journal.auth-cache.ttl:5m}")
+    private Duration ttl;
+
+    private final byte[] hmacKey = new byte[32];
+
+    // Mac instances are not thread-safe: each use clones this initialized prototype (cheap, and unlike a
+    // ThreadLocal it does not degrade to a full Mac.getInstance per request when requests run on virtual threads)
+    private Mac prototype;
+
+    private Cache<String, Authentication> cache;
+
+    @PostConstruct
+    public void init() {
+        new SecureRandom().nextBytes(hmacKey);
+        prototype = newMac();
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size tagged cache=journal.auth-cache
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, "journal.auth-cache");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Keyed hash of the credentials as sent in the Authorization header
+     */
+    public String key(String userName, String password) {
+        byte[] digest = mac().doFinal((userName + ":" + password).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+
+    public Authentication get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, Authentication authentication) {
+        cache.put(key, authentication);
+    }
+
+    /**
+     * Drops every cached verification of the user (keys are hashes, so match on the cached principal name)
+     * Linear in cache size, only runs on user writes which are rare compared to authenticated reads
+     */
+    public void invalidateUser(String userName) {
+        if (userName == null) {
+            return;
+        }
+        cache.asMap().values().removeIf(authentication -> userName.equals(authentication.getName()));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private Mac mac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return newMac();
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance("HmacSHA256");
+            instance.init(new SecretKeySpec(hmacKey, "HmacSHA256"));
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.InvalidationBatch;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process transport that delivers synchronously, for tests and single-node runs
+ * Peers created with peer() share one channel and behave like replicas sharing the Mongo collection
+ */
+public class InMemoryInvalidationTransport implements InvalidationTransport {
+
+    private final List<Consumer<InvalidationBatch>> channel;
+    private volatile Consumer<InvalidationBatch> subscriber;
+
+    public InMemoryInvalidationTransport() {
+        this(new CopyOnWriteArrayList<>());
+    }
+
+    private InMemoryInvalidationTransport(List<Consumer<InvalidationBatch>> channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Another node's transport on the same channel
+     */
+    public InMemoryInvalidationTransport peer() {
+        return new InMemoryInvalidationTransport(channel);
+    }
+
+    @Override
+    public void publish(InvalidationBatch batch) {
+        for (Consumer<InvalidationBatch> receiver : channel) {
+            receiver.accept(batch);
+        }
+    }
+
+    @Override
+    public void start(Consumer<InvalidationBatch> onBatch, Runnable onGap) {
+        subscriber = onBatch;
+        channel.add(onBatch);
+    }
+
+    @Override
+    public void stop() {
+        if (subscriber != null) {
+            channel.remove(subscriber);
+        }
+    }
+}
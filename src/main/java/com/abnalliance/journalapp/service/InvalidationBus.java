@@ -0,0 +1,144 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.InvalidationBatch;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the in-process caches of all replicas consistent with writes made on any of them
+ * - Writers invalidate their local caches directly and publish (userName, scopes) here; publishing never blocks:
+ *   events are coalesced per user (scopes OR'ed) and sent as one batch per publish-interval
+ * - Batches from other replicas are applied to the local caches; a possible gap in delivery clears them all
+ * - Remote staleness is bounded by publish-interval plus transport latency; without a transport
+ *   (journal.invalidation.transport=none) only the local caches and their TTLs apply
+ */
+@Service
+@Slf4j
+public class InvalidationBus {
+
+    // Credential verifications and cached principals of the user
+    public static final int CREDENTIALS = 1;
+    // Cached journal pages and entries of the user
+    public static final int JOURNALS = 2;
+
+    @Autowired(required = false)
+    private InvalidationTransport transport;
+
+    @Autowired
+    private CredentialCacheService credentialCacheService;
+
+    @Autowired
+    private UserDetailServiceImp userDetailService;
+
+    @Autowired
+    private JournalCacheService journalCacheService;
+
+    @Value("${journal.invalidation.publish-interval:20ms}")
+    private Duration publishInterval;
+
+    @Value("${journal.invalidation.max-batch:1000}")
+    private int maxBatch;
+
+    private final String origin = UUID.randomUUID().toString();
+    private final Map<String, Integer> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService publisher;
+
+    @PostConstruct
+    public void init() {
+        if (transport == null) {
+            return;
+        }
+        transport.start(this::apply, this::invalidateAllLocal);
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-invalidation-publish");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleWithFixedDelay(this::flush, publishInterval.toMillis(), publishInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues an invalidation of the user's cached state on the other replicas (scopes: CREDENTIALS, JOURNALS)
+     */
+    public void publish(String userName, int scopes) {
+        if (transport != null && userName != null) {
+            pending.merge(userName, scopes, (a, b) -> a | b);
+        }
+    }
+
+    // Sends everything queued so far, in batches of at most maxBatch users; failed batches are queued again
+    void flush() {
+        Iterator<String> userNames = pending.keySet().iterator();
+        while (userNames.hasNext()) {
+            Map<String, Integer> users = new LinkedHashMap<>();
+            while (userNames.hasNext() && users.size() < maxBatch) {
+                String userName = userNames.next();
+                Integer scopes = pending.remove(userName);
+                if (scopes != null) {
+                    users.put(userName, scopes);
+                }
+            }
+            if (users.isEmpty()) {
+                return;
+            }
+            try {
+                transport.publish(new InvalidationBatch(origin, users));
+                Metrics.counter("journal.invalidation.events", "direction", "published").increment(users.size());
+            } catch (Exception e) {
+                log.error("Failed to publish {} cache invalidations, retrying", users.size(), e);
+                users.forEach((userName, scopes) -> pending.merge(userName, scopes, (a, b) -> a | b));
+                return;
+            }
+        }
+    }
+
+    void apply(InvalidationBatch batch) {
+        if (origin.equals(batch.getOrigin()) || batch.getUsers() == null) {
+            return;
+        }
+        batch.getUsers().forEach((userName, scopes) -> {
+            if ((scopes & CREDENTIALS) != 0) {
+                credentialCacheService.invalidateUser(userName);
+                userDetailService.invalidate(userName);
+            }
+            if ((scopes & JOURNALS) != 0) {
+                journalCacheService.invalidateUser(userName);
+            }
+        });
+        Metrics.counter("journal.invalidation.events", "direction", "applied").increment(batch.getUsers().size());
+    }
+
+    void invalidateAllLocal() {
+        log.warn("Cache invalidations may have been missed, clearing local caches");
+        credentialCacheService.invalidateAll();
+        userDetailService.invalidateAll();
+        journalCacheService.invalidateAll();
+        Metrics.counter("journal.invalidation.gaps").increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (transport == null) {
+            return;
+        }
+        publisher.shutdown();
+        // Last chance for the writes of this node to reach the others
+        flush();
+        transport.stop();
+    }
+}
@@ -0,0 +1,24 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.InvalidationBatch;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidation batches between replicas, selected by journal.invalidation.transport (see InvalidationConfig)
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Sends one batch to every node, throws when it could not be sent (the bus keeps the events and retries)
+     */
+    void publish(InvalidationBatch batch);
+
+    /**
+     * Starts delivering every published batch, this node's own included
+     * onGap runs whenever batches may have been missed, the receiver must then assume anything changed
+     */
+    void start(Consumer<InvalidationBatch> onBatch, Runnable onGap);
+
+    void stop();
+}
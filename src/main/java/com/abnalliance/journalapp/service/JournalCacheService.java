@@ -0,0 +1,153 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.JournalCursor;
+import com.abnalliance.journalapp.dto.JournalPage;
+import com.abnalliance.journalapp.entity.JournalEntry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of journal pages and single entries, per user, bounded by an estimated memory budget
+ * - Keys carry the user's cache generation; JournalEntryService bumps it after every create, edit and delete,
+ *   so a write makes all of that user's cached reads unreachable in O(1), and a read that raced with the write
+ *   can only store its result under the old generation
+ * - Page keys also carry the journalsVersion the caller sends as ETag with the page: the generation is only
+ *   invalidated locally (and late on other replicas), the version is read from Mongo, so a new ETag can never
+ *   be paired with a page cached before the write
+ * - Unreachable entries are never read again and are the first to go under the weight bound or the TTL
+ * - max-memory covers the per-user generations as well: 1/16 of it bounds their count, the rest the cached reads
+ * - Also invalidated by UserService on user deletion and renames (a name may be reused)
+ */
+@Service
+public class JournalCacheService {
+
+    // Rough per-object overhead (headers, ObjectIds, dates) on top of the text, which is counted at 2 bytes per char
+    private static final int ENTRY_OVERHEAD_BYTES = 200;
+    private static final int PAGE_OVERHEAD_BYTES = 64;
+    // Estimated heap of one user's generation (cache node, user name, boxed Long)
+    static final int GENERATION_BYTES = 128;
+    // Share of max-memory reserved for generations, the rest bounds pages and entries
+    private static final int GENERATION_BUDGET_DIVISOR = 16;
+
+    public record PageKey(String userName, long generation, long journalsVersion, JournalCursor cursor, int size,
+                          LocalDate from, LocalDate to) {
+    }
+
+    public record EntryKey(String userName, long generation, ObjectId id) {
+    }
+
+    @Value("${journal.listing-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${journal.listing-cache.max-memory:64MB}")
+    private DataSize maxMemory;
+
+    @Value("${journal.listing-cache.ttl:5m}")
+    private Duration ttl;
+
+    // Generations never repeat: a forgotten or invalidated user gets a fresh value from this counter
+    private final AtomicLong generationCounter = new AtomicLong();
+    private Cache<String, Long> generations;
+    private Cache<Object, Object> cache;
+
+    @PostConstruct
+    public void init() {
+        long generationBudget = maxMemory.toBytes() / GENERATION_BUDGET_DIVISOR;
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxMemory.toBytes() - generationBudget)
+                .weigher(JournalCacheService::weigh)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Within max-memory too (64MB leaves room for ~32k users); losing a generation only turns that user's
+        // cached reads into misses
+        generations = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, generationBudget / GENERATION_BYTES))
+                .expireAfterAccess(ttl)
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.eviction.weight, cache.size tagged cache=journal.listing-cache
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, "journal.listing-cache");
+    }
+
+    /**
+     * Key of a page read, taken before the read so that a concurrent write invalidates it (null when disabled)
+     */
+    public PageKey pageKey(String userName, long journalsVersion, JournalCursor cursor, int size, LocalDate from, LocalDate to) {
+        return enabled ? new PageKey(userName, generation(userName), journalsVersion, cursor, size, from, to) : null;
+    }
+
+    public EntryKey entryKey(String userName, ObjectId id) {
+        return enabled ? new EntryKey(userName, generation(userName), id) : null;
+    }
+
+    public JournalPage getPage(PageKey key) {
+        return key != null ? (JournalPage) cache.getIfPresent(key) : null;
+    }
+
+    public void putPage(PageKey key, JournalPage page) {
+        if (key != null) {
+            cache.put(key, page);
+        }
+    }
+
+    public JournalEntry getEntry(EntryKey key) {
+        return key != null ? (JournalEntry) cache.getIfPresent(key) : null;
+    }
+
+    public void putEntry(EntryKey key, JournalEntry entry) {
+        if (key != null) {
+            cache.put(key, entry);
+        }
+    }
+
+    /**
+     * Makes every cached page and entry of the user unreachable, call after the write is committed
+     */
+    public void invalidateUser(String userName) {
+        if (userName != null) {
+            generations.invalidate(userName);
+        }
+    }
+
+    public void invalidateAll() {
+        generations.invalidateAll();
+        cache.invalidateAll();
+    }
+
+    private long generation(String userName) {
+        return generations.get(userName, ignored -> generationCounter.incrementAndGet());
+    }
+
+    static int weigh(Object key, Object value) {
+        if (value instanceof JournalPage page) {
+            long bytes = PAGE_OVERHEAD_BYTES + chars(page.getNextCursor());
+            for (JournalEntry entry : page.getEntries()) {
+                bytes += entryBytes(entry);
+            }
+            return (int) Math.min(bytes, Integer.MAX_VALUE);
+        }
+        if (value instanceof JournalEntry entry) {
+            return (int) Math.min(entryBytes(entry), Integer.MAX_VALUE);
+        }
+        return PAGE_OVERHEAD_BYTES;
+    }
+
+    private static long entryBytes(JournalEntry entry) {
+        return ENTRY_OVERHEAD_BYTES + chars(entry.getTitle()) + chars(entry.getContent());
+    }
+
+    private static long chars(String value) {
+        return value != null ? 2L * value.length() : 0;
+    }
+}
@@ -1,17 +1,27 @@
 package com.abnalliance.journalapp.service;
 
+import com.abnalliance.journalapp.dto.BatchItemResult;
+import com.abnalliance.journalapp.dto.JournalCursor;
+import com.abnalliance.journalapp.dto.JournalPage;
 import com.abnalliance.journalapp.entity.JournalEntry;
-import com.abnalliance.journalapp.entity.Users;
 import com.abnalliance.journalapp.repository.JournalEntryRepository;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j // For logging
@@ -23,33 +33,46 @@ public class JournalEntryService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private JournalCacheService journalCacheService;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
     /**
      * Creates new journal entry and links it to user
-     * Uses saveUser() instead of saveOrUpdateUser() because:
-     * - User already exists (authenticated)
-     * - Password shouldn't be re-encoded
-     * - Roles shouldn't be reset to default
+     * Linking is one atomic $inc on the user's journalCount (which also resolves the owner id)
+     * plus the insert of the entry carrying that owner id: no user read, no rewrite, no transaction
+     * The journal-set version is bumped again after the insert: a listing read between the two writes
+     * must not leave clients with the new ETag on a body that lacks the entry
      */
-    @Transactional
     public void saveJournalEntry(JournalEntry journalEntry, String userName) {
         try {
-            // Step 1: Set current date and save journal to journal collection
-            journalEntry.setDate(LocalDate.now());
-            journalEntryRepository.save(journalEntry);
-
-            // Step 2: Link journal to user's document via DBRef
-            Users specificUser = userService.getSpecificUserByUsername(userName);
-            if (specificUser == null) {
+            // Step 1: Resolve owner and count the entry before writing it (no orphaned entries on unknown users)
+            ObjectId userId = userService.incrementJournalCount(userName, 1);
+            if (userId == null) {
                 throw new RuntimeException("User not found: " + userName);
             }
 
-            // Step 3: Add journal reference to user's journal list
-            specificUser.getJournalEntries().add(journalEntry);
-
-            // IMPORTANT: Using saveUser() here, NOT saveOrUpdateUser()
-            // Reason: We're only updating journal references, not changing credentials
-            // saveOrUpdateUser() would incorrectly re-encode the already-encoded password
-            userService.saveUser(specificUser);
+            // Step 2: Set current date and owner, then save journal to journal collection
+            Instant now = Instant.now();
+            journalEntry.setDate(LocalDate.now());
+            journalEntry.setCreatedAt(now);
+            journalEntry.setUpdatedAt(now);
+            journalEntry.setUserId(userId);
+            journalEntry.setVersion(1);
+            try {
+                journalEntryRepository.save(journalEntry);
+            } catch (Exception e) {
+                // Compensate the counter, the entry was never written
+                userService.incrementJournalCount(userId, -1);
+                throw e;
+            }
+            userService.incrementJournalsVersion(userId);
+            invalidateJournals(userName);
 
         } catch (Exception e) {
             log.error("Failed to save journal entry for user: {}", userName, e);
@@ -57,13 +80,56 @@ public class JournalEntryService {
         }
     }
 
+    /**
+     * Creates many journal entries for one user in O(1) round trips
+     * - Entries without a title are rejected up front (INVALID) and never sent to Mongo
+     * - Valid entries go out as one unordered bulk insert, so one bad document does not stop the others
+     * - Linking is a single $inc of journalCount by the number actually inserted
+     * Returns one result per request entry, in request order
+     */
+    public List<BatchItemResult> saveJournalEntries(List<JournalEntry> journalEntries, String userName) {
+        try {
+            ObjectId userId = requireUserId(userName);
+            JournalQueries.BatchInsert batch = new JournalQueries.BatchInsert(journalEntries, userId);
+            List<BatchItemResult> results = batch.results;
+            if (batch.toInsert.isEmpty()) {
+                return results;
+            }
+
+            int inserted = batch.toInsert.size();
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, JournalEntry.class)
+                        .insert(batch.toInsert)
+                        .execute();
+            } catch (BulkOperationException e) {
+                batch.markFailed(e.getErrors());
+                inserted = e.getResult().getInsertedCount();
+            }
+
+            if (inserted > 0) {
+                userService.incrementJournalCount(userId, inserted);
+                invalidateJournals(userName);
+            }
+            return results;
+        } catch (Exception e) {
+            log.error("Failed to save journal batch for user: {}", userName, e);
+            throw new RuntimeException("Error saving journal entries: " + e.getMessage());
+        }
+    }
+
     /**
      * Updates existing journal entry without user linkage
-     * Direct save since entry already linked to user
+     * Direct save since entry already linked to user, entry and journal-set versions still move on
      */
     public void saveJournalEntry(JournalEntry journalEntry) {
         try {
+            journalEntry.setUpdatedAt(Instant.now());
+            journalEntry.setVersion(journalEntry.getVersion() + 1);
             journalEntryRepository.save(journalEntry);
+            if (journalEntry.getUserId() != null) {
+                userService.incrementJournalsVersion(journalEntry.getUserId());
+                invalidateJournals(userService.getUserNameById(journalEntry.getUserId()));
+            }
         } catch (Exception e) {
             log.error("Failed to update journal entry with id: {}", journalEntry.getId(), e);
             throw new RuntimeException("Error updating journal entry: " + e.getMessage());
@@ -71,23 +137,157 @@ public class JournalEntryService {
     }
 
     /**
-     * Retrieves all journals for a specific user
-     * Fetches from user document's journal reference list
+     * Applies a partial update to a journal owned by the user and returns the updated entry
+     * - Only non-empty title/content of the patch are $set, other fields are never re-sent to Mongo
+     * - One findAndModify filtered on _id and owner: ownership check, write and read-back in a single round trip
+     * Returns empty when the entry does not exist or belongs to someone else
      */
-    public List<JournalEntry> getAllJournalEntries(String userName) {
+    public Optional<JournalEntry> patchJournalEntry(ObjectId id, JournalEntry patch, String userName) {
+        return patchJournalEntry(id, patch, userName, null);
+    }
+
+    /**
+     * Conditional variant of patchJournalEntry (If-Match): the entry's version must be one of expectedVersions
+     * The version is part of the findAndModify filter, so check and write are atomic (optimistic concurrency)
+     * expectedVersions null means unconditional
+     * Returns empty when the entry does not exist, belongs to someone else or its version does not match
+     */
+    public Optional<JournalEntry> patchJournalEntry(ObjectId id, JournalEntry patch, String userName, List<Long> expectedVersions) {
+        try {
+            Update update = new Update();
+            if (patch.getTitle() != null && !patch.getTitle().isEmpty()) {
+                update.set("title", patch.getTitle());
+            }
+            if (patch.getContent() != null && !patch.getContent().isEmpty()) {
+                update.set("content", patch.getContent());
+            }
+
+            ObjectId userId = userService.getUserIdByUsername(userName);
+            if (userId == null) {
+                return Optional.empty();
+            }
+            Query query = new Query(Criteria.where("_id").is(id).and("userId").is(userId));
+            if (expectedVersions != null) {
+                query.addCriteria(Criteria.where("version").in(expectedVersions));
+            }
+            if (update.getUpdateObject().isEmpty()) {
+                // Nothing to change, still answer with the current entry (and 404 semantics for non-owners)
+                return Optional.ofNullable(mongoTemplate.findOne(query, JournalEntry.class));
+            }
+            update.set("updatedAt", Instant.now()).inc("version", 1);
+            JournalEntry updated = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().returnNew(true), JournalEntry.class);
+            if (updated != null) {
+                // The listing ETag and the cached reads must change with any of its entries
+                userService.incrementJournalsVersion(userId);
+                invalidateJournals(userName);
+            }
+            return Optional.ofNullable(updated);
+        } catch (Exception e) {
+            log.error("Failed to patch journal entry with id: {} for user: {}", id, userName, e);
+            throw new RuntimeException("Error updating journal entry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads only the version of a journal owned by the user (projection, _id lookup), empty if there is no such entry
+     * Used for ETag revalidation without loading or serializing the entry
+     */
+    public Optional<Long> getEntryVersion(ObjectId id, String userName) {
         try {
-            Users specificUser = userService.getSpecificUserByUsername(userName);
-            if (specificUser == null) {
+            ObjectId userId = userService.getUserIdByUsername(userName);
+            if (userId == null) {
+                return Optional.empty();
+            }
+            Query query = new Query(Criteria.where("_id").is(id).and("userId").is(userId));
+            query.fields().include("version");
+            JournalEntry entry = mongoTemplate.findOne(query, JournalEntry.class);
+            return entry != null ? Optional.of(entry.getVersion()) : Optional.empty();
+        } catch (Exception e) {
+            log.error("Failed to fetch version of journal entry with id: {} for user: {}", id, userName, e);
+            throw new RuntimeException("Error fetching journal entry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads only the version of the user's journal set, the ETag of their journal listing
+     */
+    public long getJournalsVersion(String userName) {
+        try {
+            Long version = userService.getJournalsVersion(userName);
+            if (version == null) {
                 throw new RuntimeException("User not found: " + userName);
             }
-            // Return journals linked via DBRef in user document
-            return specificUser.getJournalEntries();
+            return version;
+        } catch (Exception e) {
+            log.error("Failed to fetch journals version for user: {}", userName, e);
+            throw new RuntimeException("Error fetching journal entries: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves all journals for a specific user
+     * Single indexed query on the owner id
+     */
+    public List<JournalEntry> getAllJournalEntries(String userName) {
+        try {
+            return journalEntryRepository.findByUserId(requireUserId(userName));
         } catch (Exception e) {
             log.error("Failed to fetch journal entries for user: {}", userName, e);
             throw new RuntimeException("Error fetching journal entries: " + e.getMessage());
         }
     }
 
+    /**
+     * Retrieves one page of a user's journals, newest first, optionally limited to dates in [from, to]
+     * Keyset pagination over (date, _id): every page is a bounded scan of the owner_date_id index,
+     * no matter how deep the cursor is or how large the date range
+     * Within a day, _id order is creation order (ObjectIds are generated at insert time)
+     * Pages are served from JournalCacheService until the user's next write (a hit needs no Mongo round trip)
+     */
+    public JournalPage getJournalEntriesPage(String userName, JournalCursor cursor, int pageSize, LocalDate from, LocalDate to) {
+        return getJournalEntriesPage(userName, cursor, pageSize, from, to, null);
+    }
+
+    /**
+     * Same page, cached under the journal-set version the caller read beforehand and sends as ETag with it
+     * (null: not cached, the caller has no validator to keep consistent with the body)
+     */
+    public JournalPage getJournalEntriesPage(String userName, JournalCursor cursor, int pageSize, LocalDate from, LocalDate to,
+                                             Long journalsVersion) {
+        try {
+            JournalCacheService.PageKey key = journalsVersion != null
+                    ? journalCacheService.pageKey(userName, journalsVersion, cursor, pageSize, from, to)
+                    : null;
+            JournalPage cached = journalCacheService.getPage(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            JournalPage page = JournalQueries.page(
+                    mongoTemplate.find(JournalQueries.pageQuery(requireUserId(userName), cursor, pageSize, from, to), JournalEntry.class),
+                    pageSize);
+            journalCacheService.putPage(key, page);
+            return page;
+        } catch (Exception e) {
+            log.error("Failed to fetch journal page for user: {}", userName, e);
+            throw new RuntimeException("Error fetching journal entries: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams a user's journals (all, or dates in [from, to]), newest first, straight from a Mongo cursor
+     * Caller must close the returned stream (it holds the server-side cursor)
+     */
+    public Stream<JournalEntry> streamJournalEntries(String userName, LocalDate from, LocalDate to) {
+        try {
+            return mongoTemplate.stream(JournalQueries.listingQuery(requireUserId(userName), null, from, to), JournalEntry.class);
+        } catch (Exception e) {
+            log.error("Failed to stream journal entries for user: {}", userName, e);
+            throw new RuntimeException("Error fetching journal entries: " + e.getMessage());
+        }
+    }
+
     /**
      * Fetches single journal by ID from journal collection
      */
@@ -101,32 +301,62 @@ public class JournalEntryService {
     }
 
     /**
-     * Deletes journal from both collections (maintains referential integrity)
-     * Uses saveUser() to preserve user's existing encoded password
+     * Fetches single journal by ID only if it belongs to the given user (ownership check in the query)
+     * Found entries are served from JournalCacheService until the user's next write
      */
-    @Transactional
-    public void deleteSpecificEntryById(ObjectId id, String userName) {
+    public Optional<JournalEntry> getSpecificEntryOfUser(ObjectId id, String userName) {
         try {
-            Users specificUser = userService.getSpecificUserByUsername(userName);
-            if (specificUser == null) {
-                throw new RuntimeException("User not found: " + userName);
+            JournalCacheService.EntryKey key = journalCacheService.entryKey(userName, id);
+            JournalEntry cached = journalCacheService.getEntry(key);
+            if (cached != null) {
+                return Optional.of(cached);
             }
 
-            // Step 1: Remove journal reference from user's list
-            boolean deleted = specificUser.getJournalEntries().removeIf(x -> x.getId().equals(id));
+            ObjectId userId = userService.getUserIdByUsername(userName);
+            if (userId == null) {
+                return Optional.empty();
+            }
+            Optional<JournalEntry> entry = journalEntryRepository.findByIdAndUserId(id, userId);
+            entry.ifPresent(found -> journalCacheService.putEntry(key, found));
+            return entry;
+        } catch (Exception e) {
+            log.error("Failed to fetch journal entry with id: {} for user: {}", id, userName, e);
+            throw new RuntimeException("Error fetching journal entry: " + e.getMessage());
+        }
+    }
 
-            if (deleted) {
-                // Step 2: Update user document (using saveUser() to avoid password re-encoding)
-                userService.saveUser(specificUser);
+    /**
+     * Deletes journal owned by the user
+     * Owner id is part of the delete filter and the counter is decremented with $inc,
+     * so no user document read-modify-write and no transaction is needed
+     */
+    public void deleteSpecificEntryById(ObjectId id, String userName) {
+        try {
+            ObjectId userId = requireUserId(userName);
 
-                // Step 3: Delete actual journal from journal collection
-                journalEntryRepository.deleteById(id);
-            } else {
+            long deleted = journalEntryRepository.deleteByIdAndUserId(id, userId);
+            if (deleted == 0) {
                 throw new RuntimeException("Journal entry not found in user's entries");
             }
+            userService.incrementJournalCount(userId, -1);
+            invalidateJournals(userName);
         } catch (Exception e) {
             log.error("Failed to delete journal entry with id: {} for user: {}", id, userName, e);
             throw new RuntimeException("Error deleting journal entry: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // Local cache right away, other replicas through the bus
+    private void invalidateJournals(String userName) {
+        journalCacheService.invalidateUser(userName);
+        invalidationBus.publish(userName, InvalidationBus.JOURNALS);
+    }
+
+    private ObjectId requireUserId(String userName) {
+        ObjectId userId = userService.getUserIdByUsername(userName);
+        if (userId == null) {
+            throw new RuntimeException("User not found: " + userName);
+        }
+        return userId;
+    }
+}
@@ -0,0 +1,124 @@
+package com.abnalliance.journalapp.service;
+
+import com.mongodb.DBRef;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-off migration from the legacy "users.journalEntries" DBRef array to JournalEntry.userId
+ * - Processes users in _id order, in batches of journal.migration.batch-size
+ * - Checkpoints the last migrated user id in the "migrations" collection, so a restart resumes where it stopped
+ * - Every step is idempotent (set owner, then unset the array), so re-running a half-done batch is safe
+ * Runs during startup, before the web server accepts requests, because a full save of a not yet
+ * migrated user would otherwise replace the document and drop its journal references.
+ */
+@Service
+@Slf4j
+public class JournalOwnerMigrationService {
+
+    static final String MIGRATION_ID = "journal-owner-index";
+    static final String MIGRATIONS_COLLECTION = "migrations";
+    static final String LEGACY_FIELD = "journalEntries";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${journal.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${journal.migration.batch-size:100}")
+    private int batchSize;
+
+    @PostConstruct
+    public void migrateOnStartup() {
+        if (enabled) {
+            migrate();
+        }
+    }
+
+    /**
+     * Runs (or resumes) the migration and returns the number of users migrated by this call
+     */
+    public long migrate() {
+        try {
+            ObjectId lastUserId = readCheckpoint();
+            long migratedUsers = 0;
+            List<Document> batch;
+            do {
+                batch = nextBatch(lastUserId);
+                for (Document user : batch) {
+                    migrateUser(user);
+                    lastUserId = user.getObjectId("_id");
+                    migratedUsers++;
+                }
+                // Checkpoint once per batch, a crash mid-batch only repeats idempotent work
+                if (!batch.isEmpty()) {
+                    writeCheckpoint(lastUserId);
+                    log.info("Journal owner migration: {} users migrated so far", migratedUsers);
+                }
+            } while (batch.size() == batchSize);
+            return migratedUsers;
+        } catch (Exception e) {
+            log.error("Journal owner migration failed", e);
+            throw new RuntimeException("Error migrating journal owners: " + e.getMessage());
+        }
+    }
+
+    private List<Document> nextBatch(ObjectId lastUserId) {
+        Query query = new Query(Criteria.where(LEGACY_FIELD).exists(true));
+        if (lastUserId != null) {
+            query.addCriteria(Criteria.where("_id").gt(lastUserId));
+        }
+        query.fields().include("_id").include(LEGACY_FIELD);
+        query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+        // Raw documents: the DBRefs are read as plain references and never resolved
+        return mongoTemplate.find(query, Document.class, "users");
+    }
+
+    private void migrateUser(Document user) {
+        ObjectId userId = user.getObjectId("_id");
+        List<Object> journalIds = new ArrayList<>();
+        List<?> refs = user.getList(LEGACY_FIELD, Object.class, List.of());
+        for (Object ref : refs) {
+            if (ref instanceof DBRef dbRef) {
+                journalIds.add(dbRef.getId());
+            }
+        }
+
+        if (!journalIds.isEmpty()) {
+            mongoTemplate.updateMulti(
+                    new Query(Criteria.where("_id").in(journalIds)),
+                    new Update().set("userId", userId),
+                    "journal_db");
+        }
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(userId)),
+                new Update().unset(LEGACY_FIELD).set("journalCount", journalIds.size()),
+                "users");
+    }
+
+    private ObjectId readCheckpoint() {
+        Document checkpoint = mongoTemplate.findById(MIGRATION_ID, Document.class, MIGRATIONS_COLLECTION);
+        return checkpoint != null ? checkpoint.getObjectId("lastUserId") : null;
+    }
+
+    private void writeCheckpoint(ObjectId lastUserId) {
+        mongoTemplate.upsert(
+                new Query(Criteria.where("_id").is(MIGRATION_ID)),
+                new Update().set("lastUserId", lastUserId),
+                MIGRATIONS_COLLECTION);
+    }
+}
@@ -0,0 +1,180 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.entity.JournalEntry;
+import com.abnalliance.journalapp.entity.PurgeJob;
+import com.abnalliance.journalapp.entity.Users;
+import com.abnalliance.journalapp.repository.PurgeJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes the journals of deleted users in the background
+ * - One dedicated thread, bounded batches and a pause between batches, so foreground traffic is not starved
+ * - Jobs and their progress live in purge_jobs, unfinished jobs are resumed on startup
+ * - Deleting by owner id is naturally resumable: each batch removes what is still there
+ * - Failed jobs are retried with exponential backoff, also after a restart
+ * - A job never touches the journals of a user that still exists
+ */
+@Service
+@Slf4j
+public class JournalPurgeService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PurgeJobRepository purgeJobRepository;
+
+    @Value("${journal.purge.batch-size:500}")
+    private int batchSize;
+
+    @Value("${journal.purge.pause:100ms}")
+    private Duration pause;
+
+    @Value("${journal.purge.retry-delay:1m}")
+    private Duration retryDelay;
+
+    @Value("${journal.purge.max-retry-delay:1h}")
+    private Duration maxRetryDelay;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Persists a pending purge job for the user's journals without running it
+     * Called before the user is deleted, so a crash in between leaves a job that is resumed on startup
+     */
+    public PurgeJob create(ObjectId userId, String userName) {
+        PurgeJob job = new PurgeJob();
+        job.setUserId(userId);
+        job.setUserName(userName);
+        job.setStatus(PurgeJob.PENDING);
+        job.setCreatedAt(Instant.now());
+        job.setUpdatedAt(job.getCreatedAt());
+        purgeJobRepository.save(job);
+        return job;
+    }
+
+    /**
+     * Runs a created job in the background once the user is gone, returns immediately
+     */
+    public void schedule(PurgeJob job) {
+        executor.submit(() -> run(job.getId()));
+    }
+
+    /**
+     * Marks a created job as cancelled when the user could not be deleted
+     */
+    public void cancel(ObjectId jobId) {
+        updateJob(jobId, new Update().set("status", PurgeJob.CANCELLED));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<PurgeJob> unfinished = purgeJobRepository.findByStatusIn(
+                List.of(PurgeJob.PENDING, PurgeJob.RUNNING, PurgeJob.FAILED));
+        for (PurgeJob job : unfinished) {
+            log.info("Resuming journal purge job {} for user id {}", job.getId(), job.getUserId());
+            executor.submit(() -> run(job.getId()));
+        }
+    }
+
+    public Optional<PurgeJob> getJob(ObjectId id) {
+        return purgeJobRepository.findById(id);
+    }
+
+    public List<PurgeJob> getRecentJobs() {
+        return purgeJobRepository.findTop100ByOrderByCreatedAtDesc();
+    }
+
+    void run(ObjectId jobId) {
+        PurgeJob job = purgeJobRepository.findById(jobId).orElse(null);
+        if (job == null || PurgeJob.DONE.equals(job.getStatus())) {
+            return;
+        }
+        try {
+            // Job persisted but the user delete never happened (crash or failure in between)
+            if (mongoTemplate.exists(new Query(Criteria.where("_id").is(job.getUserId())), Users.class)) {
+                log.warn("Journal purge job {} cancelled, user still exists: {}", jobId, job.getUserName());
+                updateJob(jobId, new Update().set("status", PurgeJob.CANCELLED));
+                return;
+            }
+            updateJob(jobId, new Update().set("status", PurgeJob.RUNNING));
+            long deleted;
+            do {
+                deleted = deleteBatch(job.getUserId());
+                if (deleted > 0) {
+                    updateJob(jobId, new Update().inc("deletedCount", deleted));
+                    Thread.sleep(pause.toMillis());
+                }
+            } while (deleted > 0);
+            updateJob(jobId, new Update().set("status", PurgeJob.DONE));
+            log.info("Journal purge job {} done for user: {}", jobId, job.getUserName());
+        } catch (InterruptedException e) {
+            // Shutdown: job stays RUNNING and is resumed on next startup
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            int attempts = job.getAttempts() + 1;
+            Duration delay = retryDelay(attempts);
+            log.error("Journal purge job {} failed for user: {}, attempt {}, retrying in {}",
+                    jobId, job.getUserName(), attempts, delay, e);
+            try {
+                updateJob(jobId, new Update().set("status", PurgeJob.FAILED)
+                        .set("error", e.getMessage()).inc("attempts", 1));
+            } catch (Exception updateFailure) {
+                log.error("Failed to record failure of journal purge job {}", jobId, updateFailure);
+            }
+            executor.schedule(() -> run(jobId), delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // retry-delay doubled per failed attempt, capped at max-retry-delay
+    Duration retryDelay(int attempts) {
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxRetryDelay) > 0 ? maxRetryDelay : delay;
+    }
+
+    // Removes at most batchSize journals of the owner: fetch a bounded page of ids, then delete exactly those
+    private long deleteBatch(ObjectId userId) {
+        Query page = new Query(Criteria.where("userId").is(userId)).limit(batchSize);
+        page.fields().include("_id");
+        List<Object> ids = mongoTemplate.find(page, JournalEntry.class).stream()
+                .map(entry -> (Object) entry.getId())
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), JournalEntry.class).getDeletedCount();
+    }
+
+    private void updateJob(ObjectId jobId, Update update) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(jobId)),
+                update.set("updatedAt", Instant.now()), PurgeJob.class);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,134 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.BatchItemResult;
+import com.abnalliance.journalapp.dto.JournalCursor;
+import com.abnalliance.journalapp.dto.JournalPage;
+import com.abnalliance.journalapp.dto.JournalSearchHit;
+import com.abnalliance.journalapp.dto.JournalSearchPage;
+import com.abnalliance.journalapp.dto.JournalSearchResult;
+import com.abnalliance.journalapp.entity.JournalEntry;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queries and result mapping shared by the servlet services and ReactiveJournalEntryService
+ * Both stacks build the exact same queries (and so hit the same indexes), only the template that runs them differs
+ */
+final class JournalQueries {
+
+    private JournalQueries() {
+    }
+
+    // Owner-scoped listing in (date desc, _id desc) order, bounded to [from, to] and resuming strictly after the cursor
+    static Query listingQuery(ObjectId userId, JournalCursor cursor, LocalDate from, LocalDate to) {
+        Query query = new Query(Criteria.where("userId").is(userId));
+        if (from != null || to != null) {
+            // Both bounds on one criteria: index bounds on the date key of owner_date_id
+            Criteria range = Criteria.where("date");
+            if (from != null) {
+                range.gte(from);
+            }
+            if (to != null) {
+                range.lte(to);
+            }
+            query.addCriteria(range);
+        }
+        if (cursor != null) {
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("date").lt(cursor.getDate()),
+                    Criteria.where("date").is(cursor.getDate()).and("_id").lt(cursor.getId())));
+        }
+        return query.with(Sort.by(Sort.Direction.DESC, "date", "_id"));
+    }
+
+    // Listing page query, fetches one extra entry to know whether another page exists
+    static Query pageQuery(ObjectId userId, JournalCursor cursor, int pageSize, LocalDate from, LocalDate to) {
+        return listingQuery(userId, cursor, from, to).limit(pageSize + 1);
+    }
+
+    // Page of at most pageSize entries out of a pageQuery result, with the cursor of the next page if there is one
+    static JournalPage page(List<JournalEntry> entries, int pageSize) {
+        String nextCursor = null;
+        if (entries.size() > pageSize) {
+            entries = entries.subList(0, pageSize);
+            nextCursor = JournalCursor.after(entries.get(pageSize - 1)).encode();
+        }
+        return new JournalPage(entries, nextCursor);
+    }
+
+    // Best matches first on the owner_text index, fetches one extra hit to know whether another page exists
+    static TextQuery searchQuery(ObjectId userId, String q, int page, int pageSize) {
+        TextQuery query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(q)).sortByScore();
+        query.addCriteria(Criteria.where("userId").is(userId));
+        query.skip((long) page * pageSize).limit(pageSize + 1);
+        return query;
+    }
+
+    // Highlighted hits with snippets out of a searchQuery result
+    static JournalSearchPage searchPage(List<JournalSearchResult> results, String q, int page, int pageSize, int snippetLength) {
+        List<String> terms = JournalSearchService.terms(q);
+        List<JournalSearchHit> hits = new ArrayList<>();
+        for (JournalSearchResult result : results.subList(0, Math.min(pageSize, results.size()))) {
+            hits.add(new JournalSearchHit(
+                    result.getId().toHexString(),
+                    JournalSearchService.highlight(result.getTitle(), terms),
+                    result.getDate(),
+                    result.getScore() != null ? result.getScore() : 0f,
+                    JournalSearchService.snippet(result.getContent(), terms, snippetLength)));
+        }
+        return new JournalSearchPage(hits, page, pageSize, results.size() > pageSize);
+    }
+
+    /**
+     * Validated batch of new entries for one owner
+     * - Entries without a title are INVALID and never sent to Mongo
+     * - The others get a server-assigned id and owner (client-sent values are never trusted) and are CREATED
+     *   unless the bulk insert reports them in markFailed
+     */
+    static final class BatchInsert {
+
+        final List<BatchItemResult> results;
+        final List<JournalEntry> toInsert = new ArrayList<>();
+        // Position in toInsert -> position in the request, bulk errors are reported by insert position
+        private final List<Integer> requestIndexes = new ArrayList<>();
+
+        BatchInsert(List<JournalEntry> journalEntries, ObjectId userId) {
+            LocalDate today = LocalDate.now();
+            Instant now = Instant.now();
+            results = new ArrayList<>(journalEntries.size());
+            for (int i = 0; i < journalEntries.size(); i++) {
+                JournalEntry entry = journalEntries.get(i);
+                if (entry == null || entry.getTitle() == null || entry.getTitle().isBlank()) {
+                    results.add(new BatchItemResult(i, null, BatchItemResult.INVALID, "Title is required"));
+                    continue;
+                }
+                entry.setId(new ObjectId());
+                entry.setDate(today);
+                entry.setCreatedAt(now);
+                entry.setUpdatedAt(now);
+                entry.setUserId(userId);
+                entry.setVersion(1);
+                toInsert.add(entry);
+                requestIndexes.add(i);
+                results.add(new BatchItemResult(i, entry.getId().toHexString(), BatchItemResult.CREATED, null));
+            }
+        }
+
+        void markFailed(List<BulkWriteError> errors) {
+            for (BulkWriteError error : errors) {
+                int requestIndex = requestIndexes.get(error.getIndex());
+                results.set(requestIndex, new BatchItemResult(requestIndex, null, BatchItemResult.FAILED, error.getMessage()));
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.JournalSearchPage;
+import com.abnalliance.journalapp.dto.JournalSearchResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Full-text search over a user's journal titles and content
+ * Backed by the owner_text index ({userId: 1, title: text, content: text}): the equality prefix on the owner
+ * means a query only ever touches that user's postings, so latency does not depend on other users' data
+ */
+@Service
+@Slf4j
+public class JournalSearchService {
+
+    static final String MARK_START = "<em>";
+    static final String MARK_END = "</em>";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Value("${journal.search.snippet-length:160}")
+    private int snippetLength;
+
+    /**
+     * Searches the user's journals, best matches first
+     * q uses Mongo $text syntax: words are OR-ed, "quoted phrases" must match, -word excludes
+     */
+    public JournalSearchPage search(String userName, String q, int page, int pageSize) {
+        try {
+            ObjectId userId = userService.getUserIdByUsername(userName);
+            if (userId == null) {
+                throw new RuntimeException("User not found: " + userName);
+            }
+
+            List<JournalSearchResult> results = mongoTemplate.find(
+                    JournalQueries.searchQuery(userId, q, page, pageSize), JournalSearchResult.class, "journal_db");
+            return JournalQueries.searchPage(results, q, page, pageSize, snippetLength);
+        } catch (Exception e) {
+            log.error("Failed to search journal entries for user: {}", userName, e);
+            throw new RuntimeException("Error searching journal entries: " + e.getMessage());
+        }
+    }
+
+    // Plain search words, without $text operators (quotes, negated words)
+    static List<String> terms(String q) {
+        return Arrays.stream(q.replace("\"", " ").split("\\s+"))
+                .filter(term -> !term.isBlank() && !term.startsWith("-"))
+                .map(term -> term.toLowerCase(Locale.ROOT))
+                .distinct()
+                .toList();
+    }
+
+    // Window of the content around the first matching term, highlighted, falls back to the content start
+    static String snippet(String content, List<String> terms, int length) {
+        if (content == null || content.isEmpty()) {
+            return "";
+        }
+        String lower = content.toLowerCase(Locale.ROOT);
+        int firstMatch = -1;
+        for (String term : terms) {
+            int position = lower.indexOf(term);
+            if (position >= 0 && (firstMatch < 0 || position < firstMatch)) {
+                firstMatch = position;
+            }
+        }
+        int start = firstMatch < 0 ? 0 : Math.max(0, firstMatch - length / 4);
+        int end = Math.min(content.length(), start + length);
+        String window = content.substring(start, end);
+        return (start > 0 ? "…" : "") + highlight(window, terms) + (end < content.length() ? "…" : "");
+    }
+
+    // HTML-escapes the text and wraps every case-insensitive occurrence of a term in <em></em>
+    static String highlight(String text, List<String> terms) {
+        if (text == null) {
+            return null;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder out = new StringBuilder(text.length() + 16);
+        int i = 0;
+        while (i < text.length()) {
+            String matched = null;
+            for (String term : terms) {
+                if (lower.startsWith(term, i) && (matched == null || term.length() > matched.length())) {
+                    matched = term;
+                }
+            }
+            if (matched != null) {
+                out.append(MARK_START).append(escape(text.substring(i, i + matched.length()))).append(MARK_END);
+                i += matched.length();
+            } else {
+                out.append(escape(text.substring(i, i + 1)));
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,359 @@
+package com.abnalliance.journalapp.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only log of journal writes that are acknowledged before they reach Mongo
+ * - Records are framed as [length][crc32][payload] in numbered segment files, a torn tail is ignored on recovery
+ * - Group commit: appenders write under a short lock, then one of them fsyncs for everybody written so far,
+ *   so a burst costs one fsync per batch of concurrent appends instead of one per append
+ * - Released (flushed) records are listed by offset in a sidecar .ack file per segment, fsync'ed before release
+ *   returns; recovery skips them, so a restart only replays records that never reached Mongo
+ * - A segment and its .ack file are deleted once the segment is no longer the active one and every record in it
+ *   has been released; releasing a record twice (a retried release) has no effect
+ * - A failed fsync fails the log: the records it should have covered are released (tombstoned) so that an append
+ *   reported as failed is never replayed, and every later append is refused, the page cache state is unknown
+ * Locks are ReentrantLocks, not monitors: appenders block on fsync and must not pin virtual-thread carriers.
+ */
+@Slf4j
+class JournalWriteAheadLog implements Closeable {
+
+    private static final String SUFFIX = ".wal";
+    private static final String ACK_SUFFIX = ".ack";
+    private static final int HEADER_BYTES = 8;
+
+    /**
+     * Where a record lives: its segment and its byte offset in it
+     */
+    record Position(long segment, long offset) {
+    }
+
+    /**
+     * A recovered record and the position it has to be released against
+     */
+    record Record(Position position, byte[] payload) {
+    }
+
+    private final Path directory;
+    private final long segmentSize;
+
+    // Guarded by lock: active segment, its channel, the unreleased record count and released offsets per segment
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Integer> pendingBySegment = new TreeMap<>();
+    private final Map<Long, Set<Long>> releasedBySegment = new HashMap<>();
+    private long activeSegment;
+    private FileChannel channel;
+    private long appendedSequence;
+
+    // Guarded by syncLock: highest append sequence known to be on disk
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private long durableSequence;
+
+    private volatile boolean failed;
+
+    JournalWriteAheadLog(Path directory, long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Reads the unreleased records of every existing segment in order and opens a fresh active segment after them
+     * Returned records stay pending until released, their segments are deleted after the last release
+     */
+    List<Record> recover() throws IOException {
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            List<Record> records = new ArrayList<>();
+            long lastSegment = 0;
+            for (Path file : segmentFiles()) {
+                long segment = segmentNumber(file);
+                lastSegment = Math.max(lastSegment, segment);
+                int count = readSegment(file, segment, readAcks(segment), records);
+                if (count == 0) {
+                    deleteSegment(segment);
+                } else {
+                    pendingBySegment.put(segment, count);
+                }
+            }
+            openSegment(lastSegment + 1);
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends one record and returns once it is on disk (fsync), the result is the position to release it against
+     * Throws when the record is not durable; it is then released, so it is not replayed either
+     */
+    Position append(byte[] payload) throws IOException {
+        Position position;
+        long sequence;
+        lock.lock();
+        try {
+            if (failed) {
+                throw new IOException("Write-ahead log " + directory + " failed an fsync, not accepting records");
+            }
+            if (channel.position() > 0 && channel.position() + HEADER_BYTES + payload.length > segmentSize) {
+                rollSegment();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+            buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+            long start = channel.position();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                // Never leave a partial record in front of later ones, recovery stops at the first torn record
+                channel.truncate(start);
+                throw e;
+            }
+            position = new Position(activeSegment, start);
+            pendingBySegment.merge(activeSegment, 1, Integer::sum);
+            sequence = ++appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            awaitDurable(sequence);
+        } catch (IOException e) {
+            try {
+                release(List.of(position));
+            } catch (IOException ackFailure) {
+                // Cannot be helped: the record may come back on the next startup although its append failed
+                log.error("Could not release failed write-ahead log record {}", position, ackFailure);
+                e.addSuppressed(ackFailure);
+            }
+            throw e;
+        }
+        return position;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Marks records as flushed: their offsets are made durable in the .ack files first, then segments whose
+     * records are all released and that are closed are deleted
+     */
+    void release(List<Position> positions) throws IOException {
+        Map<Long, List<Long>> offsetsBySegment = new TreeMap<>();
+        for (Position position : positions) {
+            offsetsBySegment.computeIfAbsent(position.segment(), ignored -> new ArrayList<>()).add(position.offset());
+        }
+        lock.lock();
+        try {
+            for (Map.Entry<Long, List<Long>> entry : offsetsBySegment.entrySet()) {
+                long segment = entry.getKey();
+                Set<Long> released = releasedBySegment.computeIfAbsent(segment, ignored -> new HashSet<>());
+                List<Long> offsets = entry.getValue().stream().filter(offset -> !released.contains(offset)).distinct().toList();
+                if (offsets.isEmpty()) {
+                    continue;
+                }
+                appendAcks(segment, offsets);
+                released.addAll(offsets);
+                Integer remaining = pendingBySegment.computeIfPresent(segment, (key, count) -> count - offsets.size());
+                if (remaining != null && remaining <= 0) {
+                    pendingBySegment.remove(segment);
+                    if (segment != activeSegment) {
+                        deleteSegment(segment);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Leader/follower fsync: whoever gets the lock first forces everything appended so far, later waiters usually find their record covered
+    private void awaitDurable(long sequence) throws IOException {
+        syncLock.lock();
+        try {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            // After a failed fsync a later one may report success without the lost pages being written
+            if (failed) {
+                throw new IOException("Write-ahead log " + directory + " failed an fsync");
+            }
+            long target;
+            FileChannel current;
+            lock.lock();
+            try {
+                target = appendedSequence;
+                current = channel;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // Rolled in between: the roll forced that segment, which holds everything up to target
+            } catch (IOException e) {
+                // Set before syncLock is released, so no waiter can take a later fsync's success for its record
+                failed = true;
+                throw e;
+            }
+            durableSequence = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Caller holds lock
+    private void rollSegment() throws IOException {
+        long previous = activeSegment;
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+        channel.close();
+        openSegment(previous + 1);
+        if (!pendingBySegment.containsKey(previous)) {
+            deleteSegment(previous);
+        }
+    }
+
+    private void openSegment(long segment) throws IOException {
+        activeSegment = segment;
+        channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    // Caller holds lock; one write + fsync per segment and flushed batch
+    private void appendAcks(long segment, List<Long> offsets) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * offsets.size());
+        for (long offset : offsets) {
+            buffer.putLong(offset);
+        }
+        buffer.flip();
+        try (FileChannel acks = FileChannel.open(ackPath(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                acks.write(buffer);
+            }
+            acks.force(false);
+        }
+    }
+
+    // A torn last offset (crash during an ack write) is ignored: that record is replayed, which the flusher tolerates
+    private Set<Long> readAcks(long segment) throws IOException {
+        Set<Long> offsets = new HashSet<>();
+        Path file = ackPath(segment);
+        if (Files.exists(file)) {
+            ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+            while (content.remaining() >= Long.BYTES) {
+                offsets.add(content.getLong());
+            }
+        }
+        return offsets;
+    }
+
+    // Caller holds lock
+    private void deleteSegment(long segment) {
+        releasedBySegment.remove(segment);
+        try {
+            Files.deleteIfExists(segmentPath(segment));
+            Files.deleteIfExists(ackPath(segment));
+        } catch (IOException e) {
+            log.warn("Could not delete write-ahead log segment {}", segmentPath(segment), e);
+        }
+    }
+
+    // Reads unreleased records until the end of the file or the first incomplete / corrupt one (torn write at crash time)
+    private int readSegment(Path file, long segment, Set<Long> acked, List<Record> records) throws IOException {
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+        int count = 0;
+        while (content.remaining() >= HEADER_BYTES) {
+            long offset = content.position();
+            int length = content.getInt();
+            int checksum = content.getInt();
+            if (length < 0 || length > content.remaining()) {
+                log.warn("Ignoring torn record at the end of write-ahead log segment {}", file);
+                break;
+            }
+            byte[] payload = new byte[length];
+            content.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                log.warn("Ignoring corrupt record and the rest of write-ahead log segment {}", file);
+                break;
+            }
+            if (!acked.contains(offset)) {
+                records.add(new Record(new Position(segment, offset), payload));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%020d%s", segment, SUFFIX));
+    }
+
+    private Path ackPath(long segment) {
+        return directory.resolve(String.format("%020d%s", segment, ACK_SUFFIX));
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    int pendingRecords() {
+        lock.lock();
+        try {
+            return pendingBySegment.values().stream().mapToInt(Integer::intValue).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel != null && channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
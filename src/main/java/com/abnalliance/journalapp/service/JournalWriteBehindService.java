@@ -0,0 +1,361 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.entity.JournalEntry;
+import com.abnalliance.journalapp.entity.Users;
+import com.mongodb.MongoSocketOpenException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.ByteBuf;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind ingestion for POST /journal (journal.write-behind.enabled)
+ * - The entry is completed server-side (id, dates, version), appended to the local write-ahead log and acknowledged
+ *   as soon as the log is fsync'ed; concurrent appends share one fsync (group commit)
+ * - One flusher thread drains the backlog in batches: owners resolved with one $in query, entries inserted with one
+ *   unordered bulk insert, owners linked with one bulk of $inc updates. Bursts grow the backlog, not the Mongo pool
+ * - Unflushed log records are replayed on startup. Ids are assigned before logging and records are acknowledged in
+ *   the log before their owners are linked, so a duplicate key on a retried or replayed record means an earlier
+ *   attempt inserted it but never linked it: it is linked now
+ * - A batch moves through insert, acknowledge and link once each (Batch), a retry resumes at the step that failed.
+ *   Linking is retried only when it provably did not reach Mongo (or for the updates an unordered bulk reports as
+ *   failed); a link that may have been applied is logged and not repeated, so counts can fall short, never double
+ * - An append whose fsync failed is released from the log before the client gets its error, and the log then refuses
+ *   appends: entries are written synchronously until restart
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "journal.write-behind.enabled", havingValue = "true")
+public class JournalWriteBehindService {
+
+    // Owner of a logged entry, resolved to userId at flush time
+    static final String OWNER_FIELD = "_owner";
+    private static final int DUPLICATE_KEY = 11000;
+
+    record Pending(JournalWriteAheadLog.Position position, Document document) {
+    }
+
+    /**
+     * One batch and the flush steps it has completed, kept across retries
+     */
+    static final class Batch {
+
+        final List<Pending> records;
+        // Owner names, set once inserted
+        Set<String> owners;
+        // Entries per owner still to be linked, set once inserted
+        Map<ObjectId, Long> toLink;
+        boolean acknowledged;
+
+        Batch(List<Pending> records) {
+            this.records = records;
+        }
+
+        boolean isInserted() {
+            return toLink != null;
+        }
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JournalCacheService journalCacheService;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Value("${journal.write-behind.directory:./data/journal-wal}")
+    private Path directory;
+
+    @Value("${journal.write-behind.segment-size:16MB}")
+    private DataSize segmentSize;
+
+    @Value("${journal.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${journal.write-behind.flush-interval:50ms}")
+    private Duration flushInterval;
+
+    @Value("${journal.write-behind.max-backlog:100000}")
+    private int maxBacklog;
+
+    private final BlockingQueue<Pending> backlog = new LinkedBlockingQueue<>();
+    private JournalWriteAheadLog writeAheadLog;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() throws Exception {
+        writeAheadLog = new JournalWriteAheadLog(directory, segmentSize.toBytes());
+        List<JournalWriteAheadLog.Record> recovered = writeAheadLog.recover();
+        for (JournalWriteAheadLog.Record record : recovered) {
+            backlog.add(new Pending(record.position(), decode(record.payload())));
+        }
+        if (!recovered.isEmpty()) {
+            log.info("Replaying {} unflushed journal entries from {}", recovered.size(), directory);
+        }
+        meterRegistry.gauge("journal.write-behind.backlog", backlog, BlockingQueue::size);
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "journal-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Completes, logs and enqueues a new entry of the user, returns once the log is durable
+     * Returns empty when the backlog is full, the caller then writes synchronously
+     */
+    public Optional<JournalEntry> append(JournalEntry journalEntry, String userName) {
+        if (backlog.size() >= maxBacklog || writeAheadLog.isFailed()) {
+            return Optional.empty();
+        }
+        try {
+            Instant now = Instant.now();
+            journalEntry.setId(new ObjectId());
+            journalEntry.setDate(LocalDate.now());
+            journalEntry.setCreatedAt(now);
+            journalEntry.setUpdatedAt(now);
+            journalEntry.setVersion(1);
+
+            // Same mapping as a repository save, plus the owner's name
+            Document document = new Document();
+            mongoTemplate.getConverter().write(journalEntry, document);
+            document.put(OWNER_FIELD, userName);
+
+            JournalWriteAheadLog.Position position = writeAheadLog.append(encode(document));
+            backlog.add(new Pending(position, document));
+            return Optional.of(journalEntry);
+        } catch (Exception e) {
+            log.error("Failed to log journal entry for user: {}", userName, e);
+            throw new RuntimeException("Error saving journal entry: " + e.getMessage());
+        }
+    }
+
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Pending first = backlog.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                backlog.drainTo(batch, batchSize - 1);
+                flushWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Shutdown: whatever is not flushed stays in the log and is replayed on next startup
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Mongo being unavailable must not lose or reorder the batch: retry it with capped backoff until shutdown
+    private void flushWithRetry(List<Pending> records) throws InterruptedException {
+        Batch batch = new Batch(new ArrayList<>(records));
+        long backoff = Math.max(flushInterval.toMillis(), 10);
+        while (running) {
+            try {
+                flush(batch);
+                return;
+            } catch (Exception e) {
+                log.error("Failed to flush {} journal entries, retrying in {} ms", records.size(), backoff, e);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, 30_000);
+            }
+        }
+    }
+
+    void flush(Batch batch) throws IOException {
+        if (!batch.isInserted()) {
+            insert(batch);
+        }
+
+        // Acknowledged before linking: a record replayed after a crash has never been linked
+        if (!batch.acknowledged) {
+            List<JournalWriteAheadLog.Position> positions = new ArrayList<>(batch.records.size());
+            for (Pending pending : batch.records) {
+                positions.add(pending.position());
+            }
+            writeAheadLog.release(positions);
+            batch.acknowledged = true;
+        }
+
+        if (!batch.toLink.isEmpty()) {
+            link(batch);
+        }
+
+        // Cached reads of these owners predate the batch
+        for (String owner : batch.owners) {
+            journalCacheService.invalidateUser(owner);
+            invalidationBus.publish(owner, InvalidationBus.JOURNALS);
+        }
+    }
+
+    private void insert(Batch batch) {
+        // Step 1: Resolve all owners of the batch in one query on the unique userName index
+        Set<String> owners = new HashSet<>();
+        for (Pending pending : batch.records) {
+            owners.add(pending.document().getString(OWNER_FIELD));
+        }
+        Query ownerQuery = new Query(Criteria.where("userName").in(owners));
+        ownerQuery.fields().include("_id").include("userName");
+        Map<String, ObjectId> ownerIds = new HashMap<>();
+        for (Users user : mongoTemplate.find(ownerQuery, Users.class)) {
+            ownerIds.put(user.getUserName(), user.getId());
+        }
+
+        // Step 2: One unordered bulk insert, entries of users deleted in the meantime are dropped
+        List<Document> documents = new ArrayList<>(batch.records.size());
+        List<ObjectId> documentOwners = new ArrayList<>(batch.records.size());
+        for (Pending pending : batch.records) {
+            String owner = pending.document().getString(OWNER_FIELD);
+            ObjectId userId = ownerIds.get(owner);
+            if (userId == null) {
+                log.warn("Dropping logged journal entry {} of unknown user: {}", pending.document().get("_id"), owner);
+                continue;
+            }
+            Document document = new Document(pending.document());
+            document.remove(OWNER_FIELD);
+            document.put("userId", userId);
+            documents.add(document);
+            documentOwners.add(userId);
+        }
+        Set<Integer> failed = new HashSet<>();
+        if (!documents.isEmpty()) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, JournalEntry.class)
+                        .insert(documents)
+                        .execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    if (error.getCode() == DUPLICATE_KEY) {
+                        // Inserted by an earlier attempt of this unacknowledged record, still to be linked
+                        continue;
+                    }
+                    // Would fail on every retry as well, the entry is dropped
+                    failed.add(error.getIndex());
+                    log.error("Dropping logged journal entry {}: {}", documents.get(error.getIndex()).get("_id"), error.getMessage());
+                }
+            }
+        }
+
+        Map<ObjectId, Long> insertedByOwner = new LinkedHashMap<>();
+        for (int i = 0; i < documents.size(); i++) {
+            if (!failed.contains(i)) {
+                insertedByOwner.merge(documentOwners.get(i), 1L, Long::sum);
+            }
+        }
+        batch.owners = owners;
+        batch.toLink = insertedByOwner;
+    }
+
+    // Step 3: Link owners with one bulk of $inc updates (count and journal-set version)
+    private void link(Batch batch) {
+        List<ObjectId> userIds = new ArrayList<>(batch.toLink.keySet());
+        BulkOperations linking = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Users.class);
+        for (ObjectId userId : userIds) {
+            linking.updateOne(new Query(Criteria.where("_id").is(userId)),
+                    new Update().inc("journalCount", batch.toLink.get(userId)).inc("journalsVersion", 1));
+        }
+        try {
+            linking.execute();
+            batch.toLink = Map.of();
+        } catch (BulkOperationException e) {
+            // Unordered: every update without a write error was applied, only the failed ones are retried
+            Map<ObjectId, Long> failed = new LinkedHashMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                ObjectId userId = userIds.get(error.getIndex());
+                failed.put(userId, batch.toLink.get(userId));
+            }
+            batch.toLink = failed;
+            if (!failed.isEmpty()) {
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            if (notSent(e)) {
+                throw e;
+            }
+            // May have been applied (e.g. a read timeout after the server ran it): linking again could count twice
+            log.error("Linking journal entries {} (owner id -> count) may not have been applied, not retried",
+                    batch.toLink, e);
+            batch.toLink = Map.of();
+        }
+    }
+
+    // Failures before any byte reached the server: no server selected, no pooled connection, connection not opened.
+    // (A client-side operation timeout would also be a MongoTimeoutException, timeoutMS is not configured.)
+    static boolean notSent(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoSocketOpenException || cause instanceof MongoTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static byte[] encode(Document document) {
+        ByteBuf buffer = new RawBsonDocument(document, new DocumentCodec()).getByteBuffer();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    static Document decode(byte[] bytes) {
+        return new RawBsonDocument(bytes).decode(new DocumentCodec());
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            flusher.join(5_000);
+        }
+        writeAheadLog.close();
+        if (!backlog.isEmpty()) {
+            log.info("{} journal entries left in the write-ahead log, they are replayed on next startup", backlog.size());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.InvalidationBatch;
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Invalidation batches as documents of a capped collection, followed by every replica with a tailable cursor
+ * - One insert per published batch, one long-lived cursor per replica: no polling, no extra index
+ * - The cursor follows insertion (natural) order from the document that was newest when it opened, no _id range;
+ *   getting there skips over the collection once per (re)open, bounded by the capped size
+ * - The capped size bounds the collection; a replica lagging behind a full wrap-around loses its cursor position
+ * - Whenever the cursor has to be reopened, events may have been missed, so onGap is reported
+ */
+@Slf4j
+public class MongoInvalidationTransport implements InvalidationTransport {
+
+    private final MongoTemplate mongoTemplate;
+    private final String collectionName;
+    private final long cappedSize;
+    private final Duration retryDelay;
+
+    private volatile boolean running;
+    private Thread tailer;
+
+    public MongoInvalidationTransport(MongoTemplate mongoTemplate, String collectionName, long cappedSize, Duration retryDelay) {
+        this.mongoTemplate = mongoTemplate;
+        this.collectionName = collectionName;
+        this.cappedSize = cappedSize;
+        this.retryDelay = retryDelay;
+    }
+
+    @Override
+    public void publish(InvalidationBatch batch) {
+        List<Document> users = new ArrayList<>(batch.getUsers().size());
+        batch.getUsers().forEach((userName, scopes) -> users.add(new Document("u", userName).append("s", scopes)));
+        collection().insertOne(new Document("origin", batch.getOrigin()).append("at", new Date()).append("users", users));
+    }
+
+    @Override
+    public void start(Consumer<InvalidationBatch> onBatch, Runnable onGap) {
+        ensureCollection();
+        running = true;
+        tailer = new Thread(() -> tail(onBatch, onGap), "journal-invalidation-tail");
+        tailer.setDaemon(true);
+        tailer.start();
+    }
+
+    private void tail(Consumer<InvalidationBatch> onBatch, Runnable onGap) {
+        boolean reopened = false;
+        while (running) {
+            // The newest document when the cursor opens is its position: older batches are already reflected in this
+            // node's caches (or cleared by onGap below), everything inserted after it is delivered
+            Object position = newestId();
+            // Natural order is insertion order. _id is no position: ObjectIds come from each replica's clock and
+            // counter, so a batch from another replica can sort before one that was inserted earlier
+            try (MongoCursor<Document> cursor = collection().find()
+                    .cursorType(CursorType.TailableAwait)
+                    .maxAwaitTime(1, TimeUnit.SECONDS)
+                    .iterator()) {
+                if (reopened) {
+                    onGap.run();
+                }
+                boolean positioned = position == null;
+                while (running) {
+                    Document document = cursor.tryNext();
+                    if (document == null) {
+                        if (cursor.getServerCursor() == null) {
+                            break; // Cursor is dead, reopen
+                        }
+                        if (!positioned) {
+                            // Caught up without meeting the position: it was overwritten by a wrap-around meanwhile
+                            positioned = true;
+                            onGap.run();
+                        }
+                        continue;
+                    }
+                    if (!positioned) {
+                        positioned = position.equals(document.get("_id"));
+                        continue;
+                    }
+                    // Own batches come back too, InvalidationBus drops them by origin
+                    onBatch.accept(toBatch(document));
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation cursor on {} failed, reopening in {}", collectionName, retryDelay, e);
+                try {
+                    Thread.sleep(retryDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            reopened = true;
+        }
+    }
+
+    private void ensureCollection() {
+        if (!mongoTemplate.collectionExists(collectionName)) {
+            try {
+                mongoTemplate.createCollection(collectionName, CollectionOptions.empty().capped().size(cappedSize));
+            } catch (Exception e) {
+                // Another replica created it first
+                log.debug("Capped collection {} not created: {}", collectionName, e.getMessage());
+            }
+        }
+        // A tailable cursor on an empty capped collection dies immediately, keep one marker document in it
+        if (collection().find().limit(1).first() == null) {
+            collection().insertOne(new Document("origin", "marker").append("users", List.of()));
+        }
+    }
+
+    // Last inserted document (reverse natural order), null when the collection is empty
+    private Object newestId() {
+        Document newest = collection().find().sort(new Document("$natural", -1)).limit(1).first();
+        return newest != null ? newest.get("_id") : null;
+    }
+
+    private static InvalidationBatch toBatch(Document document) {
+        Map<String, Integer> users = new LinkedHashMap<>();
+        for (Document user : document.getList("users", Document.class, List.of())) {
+            users.merge(user.getString("u"), user.getInteger("s", 0), (a, b) -> a | b);
+        }
+        return new InvalidationBatch(document.getString("origin"), users);
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(collectionName);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (tailer != null) {
+            tailer.interrupt();
+        }
+    }
+}
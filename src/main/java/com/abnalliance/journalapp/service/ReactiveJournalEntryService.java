@@ -0,0 +1,243 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.BatchItemResult;
+import com.abnalliance.journalapp.dto.JournalCursor;
+import com.abnalliance.journalapp.dto.JournalPage;
+import com.abnalliance.journalapp.dto.JournalSearchPage;
+import com.abnalliance.journalapp.dto.JournalSearchResult;
+import com.abnalliance.journalapp.entity.JournalEntry;
+import com.abnalliance.journalapp.entity.Users;
+import com.abnalliance.journalapp.repository.ReactiveJournalEntryRepository;
+import com.abnalliance.journalapp.repository.ReactiveUserRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of JournalEntryService (and of JournalSearchService.search) for the reactive stack
+ * Same queries, indexes and owner checks; every call returns a cold Mono/Flux backed by the reactive driver,
+ * so no event-loop thread ever waits on Mongo
+ * Only created on the reactive stack: its ReactiveMongoTemplate and repositories do not exist in servlet mode
+ */
+@Service
+@Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveJournalEntryService {
+
+    @Autowired
+    private ReactiveJournalEntryRepository reactiveJournalEntryRepository;
+
+    @Autowired
+    private ReactiveUserRepository reactiveUserRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    // Servlet replicas may cache this user's journals
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Value("${journal.search.snippet-length:160}")
+    private int snippetLength;
+
+    /**
+     * Creates new journal entry and links it to user ($inc of journalCount, then insert)
+     * The counter is compensated when the insert fails, the journal-set version is bumped again after the insert
+     * (same as the servlet stack: no listing ETag may stand for a body without the entry)
+     */
+    public Mono<JournalEntry> saveJournalEntry(JournalEntry journalEntry, String userName) {
+        return incrementJournalCount(userName, 1)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("User not found: " + userName)))
+                .flatMap(userId -> {
+                    Instant now = Instant.now();
+                    journalEntry.setDate(LocalDate.now());
+                    journalEntry.setCreatedAt(now);
+                    journalEntry.setUpdatedAt(now);
+                    journalEntry.setUserId(userId);
+                    journalEntry.setVersion(1);
+                    return reactiveJournalEntryRepository.save(journalEntry)
+                            // Compensate the counter, the entry was never written
+                            .onErrorResume(e -> incrementJournalCount(userId, -1).then(Mono.error(e)))
+                            .flatMap(saved -> incrementJournalsVersion(userId).thenReturn(saved));
+                })
+                .doOnNext(saved -> invalidationBus.publish(userName, InvalidationBus.JOURNALS))
+                .doOnError(e -> log.error("Failed to save journal entry for user: {}", userName, e))
+                .onErrorMap(e -> new RuntimeException("Error saving journal entry: " + e.getMessage()));
+    }
+
+    /**
+     * Creates many journal entries for one user: one unordered bulk insert plus one $inc
+     * Returns one result per request entry, in request order
+     */
+    public Mono<List<BatchItemResult>> saveJournalEntries(List<JournalEntry> journalEntries, String userName) {
+        return requireUserId(userName)
+                .flatMap(userId -> {
+                    JournalQueries.BatchInsert batch = new JournalQueries.BatchInsert(journalEntries, userId);
+                    List<BatchItemResult> results = batch.results;
+                    if (batch.toInsert.isEmpty()) {
+                        return Mono.just(results);
+                    }
+
+                    return reactiveMongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, JournalEntry.class)
+                            .insert(batch.toInsert)
+                            .execute()
+                            .map(BulkWriteResult::getInsertedCount)
+                            // Partial failures surface either raw or translated depending on the driver path
+                            .onErrorResume(MongoBulkWriteException.class, e -> {
+                                batch.markFailed(e.getWriteErrors());
+                                return Mono.just(e.getWriteResult().getInsertedCount());
+                            })
+                            .onErrorResume(BulkOperationException.class, e -> {
+                                batch.markFailed(e.getErrors());
+                                return Mono.just(e.getResult().getInsertedCount());
+                            })
+                            .flatMap(inserted -> inserted > 0
+                                    ? incrementJournalCount(userId, inserted).thenReturn(results)
+                                    : Mono.just(results));
+                })
+                .doOnNext(results -> invalidationBus.publish(userName, InvalidationBus.JOURNALS))
+                .doOnError(e -> log.error("Failed to save journal batch for user: {}", userName, e))
+                .onErrorMap(e -> new RuntimeException("Error saving journal entries: " + e.getMessage()));
+    }
+
+    /**
+     * Applies a partial update to a journal owned by the user and emits the updated entry
+     * Completes empty when the entry does not exist or belongs to someone else
+     */
+    public Mono<JournalEntry> patchJournalEntry(ObjectId id, JournalEntry patch, String userName) {
+        Update update = new Update();
+        if (patch.getTitle() != null && !patch.getTitle().isEmpty()) {
+            update.set("title", patch.getTitle());
+        }
+        if (patch.getContent() != null && !patch.getContent().isEmpty()) {
+            update.set("content", patch.getContent());
+        }
+
+        return getUserIdByUsername(userName)
+                .flatMap(userId -> {
+                    Query query = new Query(Criteria.where("_id").is(id).and("userId").is(userId));
+                    if (update.getUpdateObject().isEmpty()) {
+                        return reactiveMongoTemplate.findOne(query, JournalEntry.class);
+                    }
+                    // Same versioning as the servlet stack: entry version and the owner's journal-set version move on
+                    update.set("updatedAt", Instant.now()).inc("version", 1);
+                    return reactiveMongoTemplate.findAndModify(query, update,
+                                    FindAndModifyOptions.options().returnNew(true), JournalEntry.class)
+                            .flatMap(updated -> incrementJournalsVersion(userId).thenReturn(updated));
+                })
+                .doOnNext(updated -> invalidationBus.publish(userName, InvalidationBus.JOURNALS))
+                .doOnError(e -> log.error("Failed to patch journal entry with id: {} for user: {}", id, userName, e))
+                .onErrorMap(e -> new RuntimeException("Error updating journal entry: " + e.getMessage()));
+    }
+
+    /**
+     * Emits one page of a user's journals, newest first (keyset pagination over (date, _id))
+     */
+    public Mono<JournalPage> getJournalEntriesPage(String userName, JournalCursor cursor, int pageSize, LocalDate from, LocalDate to) {
+        return requireUserId(userName)
+                .flatMap(userId -> reactiveMongoTemplate.find(JournalQueries.pageQuery(userId, cursor, pageSize, from, to), JournalEntry.class)
+                        .collectList())
+                .map(entries -> JournalQueries.page(entries, pageSize))
+                .doOnError(e -> log.error("Failed to fetch journal page for user: {}", userName, e))
+                .onErrorMap(e -> new RuntimeException("Error fetching journal entries: " + e.getMessage()));
+    }
+
+    /**
+     * Streams a user's journals (all, or dates in [from, to]), newest first
+     * Demand from the subscriber (the HTTP connection) is propagated to the Mongo cursor: entries are fetched
+     * batch by batch as the client reads them, and cancelling the subscription closes the cursor
+     */
+    public Flux<JournalEntry> streamJournalEntries(String userName, LocalDate from, LocalDate to) {
+        return requireUserId(userName)
+                .flatMapMany(userId -> reactiveMongoTemplate.find(JournalQueries.listingQuery(userId, null, from, to), JournalEntry.class))
+                .doOnError(e -> log.error("Failed to stream journal entries for user: {}", userName, e))
+                .onErrorMap(e -> new RuntimeException("Error fetching journal entries: " + e.getMessage()));
+    }
+
+    /**
+     * Searches the user's journals, best matches first (owner_text index, same ranking and snippets as JournalSearchService)
+     */
+    public Mono<JournalSearchPage> search(String userName, String q, int page, int pageSize) {
+        return requireUserId(userName)
+                .flatMap(userId -> reactiveMongoTemplate.find(JournalQueries.searchQuery(userId, q, page, pageSize),
+                        JournalSearchResult.class, "journal_db").collectList())
+                .map(results -> JournalQueries.searchPage(results, q, page, pageSize, snippetLength))
+                .doOnError(e -> log.error("Failed to search journal entries for user: {}", userName, e))
+                .onErrorMap(e -> new RuntimeException("Error searching journal entries: " + e.getMessage()));
+    }
+
+    /**
+     * Fetches single journal by ID only if it belongs to the given user (ownership check in the query)
+     */
+    public Mono<JournalEntry> getSpecificEntryOfUser(ObjectId id, String userName) {
+        return getUserIdByUsername(userName)
+                .flatMap(userId -> reactiveJournalEntryRepository.findByIdAndUserId(id, userId))
+                .doOnError(e -> log.error("Failed to fetch journal entry with id: {} for user: {}", id, userName, e))
+                .onErrorMap(e -> new RuntimeException("Error fetching journal entry: " + e.getMessage()));
+    }
+
+    /**
+     * Deletes journal owned by the user and decrements the owner's counter
+     * Emits true when an entry was deleted, false when there was none to delete
+     */
+    public Mono<Boolean> deleteSpecificEntryById(ObjectId id, String userName) {
+        return getUserIdByUsername(userName)
+                .flatMap(userId -> reactiveJournalEntryRepository.deleteByIdAndUserId(id, userId)
+                        .flatMap(deleted -> deleted > 0
+                                ? incrementJournalCount(userId, -1).thenReturn(true)
+                                : Mono.just(false)))
+                .defaultIfEmpty(false)
+                .doOnNext(deleted -> {
+                    if (deleted) {
+                        invalidationBus.publish(userName, InvalidationBus.JOURNALS);
+                    }
+                })
+                .doOnError(e -> log.error("Failed to delete journal entry with id: {} for user: {}", id, userName, e))
+                .onErrorMap(e -> new RuntimeException("Error deleting journal entry: " + e.getMessage()));
+    }
+
+    private Mono<ObjectId> getUserIdByUsername(String userName) {
+        return reactiveUserRepository.findIdByUserName(userName).map(Users::getId);
+    }
+
+    private Mono<ObjectId> requireUserId(String userName) {
+        return getUserIdByUsername(userName)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("User not found: " + userName)));
+    }
+
+    // Atomic $inc that also resolves the owner id, empty when there is no such user
+    private Mono<ObjectId> incrementJournalCount(String userName, long delta) {
+        Query query = new Query(Criteria.where("userName").is(userName));
+        query.fields().include("_id");
+        return reactiveMongoTemplate.findAndModify(query, new Update().inc("journalCount", delta).inc("journalsVersion", 1),
+                FindAndModifyOptions.options().returnNew(true), Users.class).map(Users::getId);
+    }
+
+    private Mono<Void> incrementJournalCount(ObjectId userId, long delta) {
+        return reactiveMongoTemplate.updateFirst(new Query(Criteria.where("_id").is(userId)),
+                new Update().inc("journalCount", delta).inc("journalsVersion", 1), Users.class).then();
+    }
+
+    private Mono<Void> incrementJournalsVersion(ObjectId userId) {
+        return reactiveMongoTemplate.updateFirst(new Query(Criteria.where("_id").is(userId)),
+                new Update().inc("journalsVersion", 1), Users.class).then();
+    }
+}
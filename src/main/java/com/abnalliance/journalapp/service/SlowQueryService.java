@@ -0,0 +1,365 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.SlowOperation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most recent slow Mongo commands (reported by SlowQueryListener) in a bounded ring buffer
+ * - Each entry carries the query shape and duration; explainable commands get a queryPlanner explain,
+ *   run on one background thread so the request that was slow never waits for it
+ * - The plan is checked for collection scans (COLLSCAN) and the indexes it uses
+ * - One explain per shape per journal.slow-query.explain-interval, later entries of the same shape reuse it
+ * - The listener keeps a copy of a running command's query part only (queryPart: filter, sort, projection, pipeline),
+ *   never its documents or update bodies, and drops it when the command was fast; shape and explain are derived from
+ *   that part once a command turned out slow, writes are explained as the find of their query
+ * Nothing is written to the database and Mongo's profiler is not needed.
+ */
+@Service
+@Slf4j
+public class SlowQueryService {
+
+    // Commands whose query part can be explained
+    public static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "distinct", "findAndModify", "update", "delete");
+
+    // Lazy: the Mongo client is built with SlowQueryListener, which needs this service
+    @Lazy
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${journal.slow-query.threshold:100ms}")
+    private Duration threshold;
+
+    @Value("${journal.slow-query.capacity:200}")
+    private int capacity;
+
+    @Value("${journal.slow-query.explain:true}")
+    private boolean explainEnabled;
+
+    @Value("${journal.slow-query.explain-interval:1m}")
+    private Duration explainInterval;
+
+    private final Deque<SlowOperation> operations = new ArrayDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // Shape -> last explained entry, to reuse its plan
+    private final Map<String, SlowOperation> explainedShapes = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor explainExecutor;
+
+    @PostConstruct
+    public void init() {
+        // One thread, small queue: under a burst of slow queries extra explains are dropped, never queued without bound
+        explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(32), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    public long getThresholdMillis() {
+        return threshold.toMillis();
+    }
+
+    /**
+     * Copy of the parts of a command that decide its plan, null when the command is not explainable
+     * Small (no documents, no update bodies), and safe to keep after the driver reuses the command's buffer
+     */
+    public static BsonDocument copyQueryPart(String commandName, BsonDocument command) {
+        return EXPLAINABLE.contains(commandName) ? queryPart(commandName, command).clone() : null;
+    }
+
+    /**
+     * Records one slow command; queryPart is the listener's copyQueryPart, null when not explainable
+     */
+    public void record(String database, String collection, String commandName, BsonDocument queryPart, long durationMs) {
+        SlowOperation operation = new SlowOperation();
+        operation.setId(sequence.incrementAndGet());
+        operation.setTimestamp(Instant.now());
+        operation.setDatabase(database);
+        operation.setCollection(collection);
+        operation.setCommand(commandName);
+        operation.setDurationMs(durationMs);
+
+        BsonDocument query = queryPart != null ? explainCommand(commandName, collection, queryPart) : null;
+        if (query == null) {
+            operation.setExplainStatus(SlowOperation.UNSUPPORTED);
+            add(operation);
+            return;
+        }
+        String shape = shape(queryPart).toJson();
+        operation.setShape(shape);
+
+        String shapeKey = database + "." + collection + ":" + commandName + ":" + shape;
+        SlowOperation explained = explainedShapes.get(shapeKey);
+        if (!explainEnabled) {
+            operation.setExplainStatus(SlowOperation.SKIPPED);
+        } else if (explained != null && explained.getTimestamp().plus(explainInterval).isAfter(operation.getTimestamp())) {
+            copyPlan(explained, operation);
+        } else {
+            operation.setExplainStatus(SlowOperation.PENDING);
+        }
+        add(operation);
+        log.warn("Slow Mongo {} on {}.{} took {} ms, shape {}", commandName, database, collection, durationMs, shape);
+
+        if (SlowOperation.PENDING.equals(operation.getExplainStatus())) {
+            try {
+                explainExecutor.execute(() -> explain(operation, query, shapeKey));
+            } catch (RuntimeException e) {
+                update(operation, () -> operation.setExplainStatus(SlowOperation.SKIPPED));
+            }
+        }
+    }
+
+    /**
+     * Slow operations currently in the buffer, newest first
+     */
+    public List<SlowOperation> getRecent() {
+        synchronized (operations) {
+            List<SlowOperation> recent = new ArrayList<>(operations.size());
+            Iterator<SlowOperation> iterator = operations.descendingIterator();
+            while (iterator.hasNext()) {
+                recent.add(iterator.next().copy());
+            }
+            return recent;
+        }
+    }
+
+    public void clear() {
+        synchronized (operations) {
+            operations.clear();
+        }
+        explainedShapes.clear();
+    }
+
+    private void add(SlowOperation operation) {
+        synchronized (operations) {
+            if (operations.size() >= capacity) {
+                operations.removeFirst();
+            }
+            operations.addLast(operation);
+        }
+    }
+
+    // Entries are read under the same lock, so readers always see a complete explain result
+    private void update(SlowOperation operation, Runnable change) {
+        synchronized (operations) {
+            change.run();
+        }
+    }
+
+    private void explain(SlowOperation operation, BsonDocument query, String shapeKey) {
+        try {
+            Document result = mongoTemplate.getMongoDatabaseFactory().getMongoDatabase(operation.getDatabase())
+                    .runCommand(new Document("explain", query).append("verbosity", "queryPlanner"));
+            Document winningPlan = findWinningPlan(result);
+            Set<String> indexes = new LinkedHashSet<>();
+            boolean collectionScan = winningPlan != null && analyze(winningPlan, indexes);
+            update(operation, () -> {
+                operation.setExplainStatus(SlowOperation.DONE);
+                operation.setCollectionScan(collectionScan);
+                operation.setIndexes(new ArrayList<>(indexes));
+                operation.setWinningPlan(winningPlan);
+            });
+            explainedShapes.put(shapeKey, operation);
+            if (explainedShapes.size() > capacity) {
+                explainedShapes.clear();
+            }
+            if (collectionScan) {
+                log.warn("Slow Mongo {} on {}.{} is a collection scan, shape {}", operation.getCommand(),
+                        operation.getDatabase(), operation.getCollection(), operation.getShape());
+            }
+        } catch (Exception e) {
+            log.error("Failed to explain slow Mongo {} on {}.{}", operation.getCommand(), operation.getDatabase(), operation.getCollection(), e);
+            update(operation, () -> {
+                operation.setExplainStatus(SlowOperation.FAILED);
+                operation.setExplainError(e.getMessage());
+            });
+        }
+    }
+
+    private void copyPlan(SlowOperation from, SlowOperation to) {
+        synchronized (operations) {
+            to.setExplainStatus(from.getExplainStatus());
+            to.setCollectionScan(from.getCollectionScan());
+            to.setIndexes(from.getIndexes());
+            to.setWinningPlan(from.getWinningPlan());
+        }
+    }
+
+    // The command sent inside {explain: ...}, rebuilt from the query part: writes are explained as a find of their
+    // query (same plan selection for the filter), null when there is nothing to explain (e.g. no update statement)
+    static BsonDocument explainCommand(String commandName, String collection, BsonDocument queryPart) {
+        BsonDocument command = new BsonDocument();
+        switch (commandName) {
+            case "find" -> {
+                command.put("find", new BsonString(collection));
+                copy(queryPart, command, "filter", "sort", "projection", "hint");
+            }
+            case "aggregate" -> {
+                command.put("aggregate", new BsonString(collection));
+                copy(queryPart, command, "pipeline");
+                command.put("cursor", new BsonDocument());
+            }
+            case "count", "distinct" -> {
+                command.put(commandName, new BsonString(collection));
+                copy(queryPart, command, "query", "key");
+            }
+            case "findAndModify", "update", "delete" -> {
+                BsonValue filter = queryPart.get(commandName.equals("findAndModify") ? "query" : "q");
+                if (filter == null) {
+                    return null;
+                }
+                command.put("find", new BsonString(collection));
+                command.put("filter", filter);
+                copy(queryPart, command, "sort");
+            }
+            default -> {
+                return null;
+            }
+        }
+        return command;
+    }
+
+    // Parts of the command that decide the plan: filter, sort, pipeline
+    static BsonDocument queryPart(String commandName, BsonDocument command) {
+        BsonDocument part = new BsonDocument();
+        switch (commandName) {
+            case "find" -> copy(command, part, "filter", "sort", "projection", "hint");
+            case "aggregate" -> copy(command, part, "pipeline");
+            case "count", "distinct" -> copy(command, part, "query", "key");
+            case "findAndModify" -> copy(command, part, "query", "sort");
+            case "update" -> copyStatement(command, part, "updates", "q");
+            case "delete" -> copyStatement(command, part, "deletes", "q");
+            default -> { }
+        }
+        return part;
+    }
+
+    private static void copy(BsonDocument from, BsonDocument to, String... keys) {
+        for (String key : keys) {
+            if (from.containsKey(key)) {
+                to.put(key, from.get(key));
+            }
+        }
+    }
+
+    private static void copyStatement(BsonDocument command, BsonDocument to, String statements, String key) {
+        BsonArray array = command.getArray(statements, null);
+        if (array != null && !array.isEmpty() && array.get(0).isDocument()) {
+            copy(array.get(0).asDocument(), to, key);
+        }
+    }
+
+    // Keeps field names and operators, replaces every value with "?" (arrays of values collapse to ["?"])
+    // Top-level sort/projection/hint/key are kept as they are: they are part of the shape, not user values
+    static BsonDocument shape(BsonDocument queryPart) {
+        BsonDocument shaped = new BsonDocument();
+        for (Map.Entry<String, BsonValue> part : queryPart.entrySet()) {
+            boolean structural = Set.of("sort", "projection", "hint", "key").contains(part.getKey());
+            shaped.put(part.getKey(), structural ? part.getValue() : shape(part.getValue()));
+        }
+        return shaped;
+    }
+
+    private static BsonValue shape(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument shaped = new BsonDocument();
+            for (Map.Entry<String, BsonValue> field : value.asDocument().entrySet()) {
+                shaped.put(field.getKey(), shape(field.getValue()));
+            }
+            return shaped;
+        }
+        if (value.isArray()) {
+            BsonArray shaped = new BsonArray();
+            for (BsonValue element : value.asArray()) {
+                BsonValue elementShape = shape(element);
+                if (!shaped.contains(elementShape)) {
+                    shaped.add(elementShape);
+                }
+            }
+            return shaped;
+        }
+        return new BsonString("?");
+    }
+
+    private static Document findWinningPlan(Document explain) {
+        Object found = find(explain, "winningPlan");
+        return found instanceof Document document ? document : null;
+    }
+
+    // Depth-first search for a key anywhere in the explain output (its layout differs by command and server version)
+    private static Object find(Object node, String key) {
+        if (node instanceof Document document) {
+            if (document.containsKey(key)) {
+                return document.get(key);
+            }
+            for (Object value : document.values()) {
+                Object found = find(value, key);
+                if (found != null) {
+                    return found;
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) {
+                Object found = find(value, key);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    // True when any stage of the plan is a COLLSCAN, collects the index names of IXSCAN stages
+    static boolean analyze(Object node, Set<String> indexes) {
+        boolean collectionScan = false;
+        if (node instanceof Document document) {
+            if ("COLLSCAN".equals(document.get("stage"))) {
+                collectionScan = true;
+            }
+            if (document.get("indexName") instanceof String indexName) {
+                indexes.add(indexName);
+            }
+            for (Object value : document.values()) {
+                collectionScan |= analyze(value, indexes);
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) {
+                collectionScan |= analyze(value, indexes);
+            }
+        }
+        return collectionScan;
+    }
+}
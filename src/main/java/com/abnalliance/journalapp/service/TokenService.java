@@ -0,0 +1,217 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.TokenResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Issues and validates stateless bearer tokens (JWT compact format, HS256)
+ * - Access tokens are short-lived and validated with CPU only: no Mongo read, no BCrypt
+ * - Refresh tokens are long-lived and carry a fingerprint of the password hash,
+ *   so a password change revokes every refresh token issued before it
+ * - Password is verified with BCrypt exactly once, at login
+ */
+@Service
+@Slf4j
+public class TokenService {
+
+    static final String ACCESS = "access";
+    static final String REFRESH = "refresh";
+
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = B64.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private UserDetailServiceImp userDetailService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Base64 HMAC key shared by all replicas, a random per-process key is used when empty
+    @Value("${journal.token.secret:}")
+    private String secret;
+
+    @Value("${journal.token.access-ttl:15m}")
+    private Duration accessTtl;
+
+    @Value("${journal.token.refresh-ttl:7d}")
+    private Duration refreshTtl;
+
+    private byte[] key;
+
+    // Initialized HMAC, cloned per use since Mac is not thread-safe
+    private Mac prototype;
+
+    @PostConstruct
+    public void init() {
+        if (secret == null || secret.isBlank()) {
+            log.warn("journal.token.secret is not set, using a random key: tokens will not survive a restart or work across replicas");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = Base64.getDecoder().decode(secret);
+        }
+        prototype = newMac();
+    }
+
+    /**
+     * Verifies the password once and issues an access/refresh token pair
+     */
+    public TokenResponse login(String userName, String password) {
+        UserDetails user;
+        try {
+            user = userDetailService.loadUserByUsername(userName);
+        } catch (UsernameNotFoundException e) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        if (password == null || !passwordEncoder.matches(password, user.getPassword())) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            // Issued tokens must carry the fingerprint of the new hash
+            user = userDetailService.updatePassword(user, passwordEncoder.encode(password));
+        }
+        return issue(user);
+    }
+
+    /**
+     * Exchanges a valid refresh token for a new token pair
+     * Re-reads the user so deleted users, renamed users, changed roles and changed passwords take effect
+     */
+    public TokenResponse refresh(String refreshToken) {
+        Map<String, Object> claims = verify(refreshToken, REFRESH);
+        UserDetails user;
+        try {
+            user = userDetailService.loadUserByUsername((String) claims.get("sub"));
+        } catch (UsernameNotFoundException e) {
+            throw new BadCredentialsException("Invalid token");
+        }
+        if (!passwordFingerprint(user.getPassword()).equals(claims.get("pwd"))) {
+            throw new BadCredentialsException("Invalid token");
+        }
+        return issue(user);
+    }
+
+    /**
+     * Validates an access token and returns the authenticated principal it carries
+     */
+    @SuppressWarnings("unchecked")
+    public Authentication authenticate(String accessToken) {
+        Map<String, Object> claims = verify(accessToken, ACCESS);
+        List<String> roles = (List<String>) claims.getOrDefault("roles", List.of());
+        return UsernamePasswordAuthenticationToken.authenticated(claims.get("sub"), null,
+                AuthorityUtils.createAuthorityList(roles));
+    }
+
+    private TokenResponse issue(UserDetails user) {
+        Instant now = Instant.now();
+        List<String> roles = user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+
+        Map<String, Object> access = new LinkedHashMap<>();
+        access.put("sub", user.getUsername());
+        access.put("typ", ACCESS);
+        access.put("roles", roles);
+        access.put("iat", now.getEpochSecond());
+        access.put("exp", now.plus(accessTtl).getEpochSecond());
+
+        Map<String, Object> refresh = new LinkedHashMap<>();
+        refresh.put("sub", user.getUsername());
+        refresh.put("typ", REFRESH);
+        refresh.put("pwd", passwordFingerprint(user.getPassword()));
+        refresh.put("iat", now.getEpochSecond());
+        refresh.put("exp", now.plus(refreshTtl).getEpochSecond());
+
+        return new TokenResponse(sign(access), sign(refresh), "Bearer", accessTtl.toSeconds());
+    }
+
+    private String sign(Map<String, Object> claims) {
+        try {
+            String signingInput = HEADER + "." + B64.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return signingInput + "." + B64.encodeToString(mac().doFinal(signingInput.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("Error signing token: " + e.getMessage(), e);
+        }
+    }
+
+    // Checks signature, token type and expiry, throws BadCredentialsException on any failure
+    private Map<String, Object> verify(String token, String expectedType) {
+        try {
+            int lastDot = token.lastIndexOf('.');
+            String signingInput = token.substring(0, lastDot);
+            byte[] signature = B64_DECODER.decode(token.substring(lastDot + 1));
+            byte[] expected = mac().doFinal(signingInput.getBytes(StandardCharsets.UTF_8));
+            if (!signingInput.startsWith(HEADER + ".") || !MessageDigest.isEqual(expected, signature)) {
+                throw new BadCredentialsException("Invalid token");
+            }
+
+            byte[] payload = B64_DECODER.decode(signingInput.substring(HEADER.length() + 1));
+            Map<String, Object> claims = objectMapper.readValue(payload, new TypeReference<Map<String, Object>>() {});
+            if (!expectedType.equals(claims.get("typ"))) {
+                throw new BadCredentialsException("Invalid token");
+            }
+            if (((Number) claims.get("exp")).longValue() <= Instant.now().getEpochSecond()) {
+                throw new BadCredentialsException("Token expired");
+            }
+            return claims;
+        } catch (BadCredentialsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BadCredentialsException("Invalid token");
+        }
+    }
+
+    // Short keyed digest of the stored BCrypt hash, changes whenever the password changes
+    private String passwordFingerprint(String passwordHash) {
+        byte[] digest = mac().doFinal(("pwd:" + passwordHash).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest, 0, 12);
+    }
+
+    private Mac mac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return newMac();
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance("HmacSHA256");
+            instance.init(new SecretKeySpec(key, "HmacSHA256"));
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
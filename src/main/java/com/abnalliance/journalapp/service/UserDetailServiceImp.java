@@ -2,29 +2,110 @@ package com.abnalliance.journalapp.service;
 
 import com.abnalliance.journalapp.entity.Users;
 import com.abnalliance.journalapp.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.List;
+
 @Service
-public class UserDetailServiceImp implements UserDetailsService {
+@Slf4j
+public class UserDetailServiceImp implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     UserRepository userRepository;
 
+    // Lazy: InvalidationBus itself needs this service to apply remote invalidations
+    @Lazy
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Value("${journal.user-details-cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${journal.user-details-cache.ttl:10m}")
+    private Duration cacheTtl;
+
+    // Immutable snapshot of the projected principal fields, a fresh UserDetails is built from it on every load
+    // (Spring Security erases credentials on the UserDetails it authenticated, so instances must never be shared)
+    private record Principal(String userName, String password, List<String> roles) {}
+
+    private Cache<String, Principal> principals;
+
+    @PostConstruct
+    public void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size tagged cache=journal.user-details-cache
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, principals, "journal.user-details-cache");
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Users user = userRepository.findByUserName(username);
-        if(user != null){
-            return User.builder()
-                    .username(user.getUserName())
-                    .password(user.getPassword())
-                    .roles(user.getRoles().toArray(new String[0]))
-                    .build();
+        Principal principal = username != null ? principals.getIfPresent(username) : null;
+        if (principal == null) {
+            // Projection query: userName, password and roles only
+            Users user = userRepository.findPrincipalByUserName(username);
+            if (user == null) {
+                throw new UsernameNotFoundException("User not found: " + username);
+            }
+            principal = new Principal(user.getUserName(), user.getPassword(),
+                    user.getRoles() != null ? List.copyOf(user.getRoles()) : List.of());
+            principals.put(principal.userName(), principal);
+        }
+        return User.builder()
+                .username(principal.userName())
+                .password(principal.password())
+                .roles(principal.roles().toArray(new String[0]))
+                .build();
+    }
+
+    /**
+     * Drops the cached principal, called by UserService whenever credentials or roles change or the user is deleted
+     */
+    public void invalidate(String userName) {
+        if (userName != null) {
+            principals.invalidate(userName);
+        }
+    }
+
+    public void invalidateAll() {
+        principals.invalidateAll();
+    }
+
+    /**
+     * Stores a rehash of the password that was just verified (cost raised or legacy unprefixed hash)
+     * Called by DaoAuthenticationProvider after a successful Basic login and by TokenService.login.
+     * Best effort: a concurrent password change wins, and a failure leaves the old, still valid hash.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        try {
+            if (userRepository.updatePasswordByUserNameAndPassword(user.getUsername(), user.getPassword(), newPassword) == 0) {
+                return user;
+            }
+            invalidate(user.getUsername());
+            invalidationBus.publish(user.getUsername(), InvalidationBus.CREDENTIALS);
+            return User.withUserDetails(user).password(newPassword).build();
+        } catch (Exception e) {
+            log.error("Failed to upgrade password hash of user: {}", user.getUsername(), e);
+            return user;
         }
-        throw new UsernameNotFoundException("User not found: " + username);
     }
 }
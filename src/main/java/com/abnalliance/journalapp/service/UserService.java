@@ -1,38 +1,79 @@
 package com.abnalliance.journalapp.service;
 
+import com.abnalliance.journalapp.dto.UserPage;
+import com.abnalliance.journalapp.dto.UserSummary;
+import com.abnalliance.journalapp.entity.PurgeJob;
 import com.abnalliance.journalapp.entity.Users;
 import com.abnalliance.journalapp.repository.UserRepository;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class UserService {
 
-    private static final PasswordEncoder passwordEncode = new BCryptPasswordEncoder();
-
     @Autowired
     private UserRepository userRepository;
 
+    // Calibrated cost on the bounded hashing executor, see PasswordConfig
+    @Autowired
+    @Qualifier("registrationPasswordEncoder")
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CredentialCacheService credentialCacheService;
+
+    @Autowired
+    private UserDetailServiceImp userDetailService;
+
+    @Autowired
+    private JournalPurgeService journalPurgeService;
+
+    @Autowired
+    private JournalCacheService journalCacheService;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
     /**
      * FOR NEW USER REGISTRATION OR PASSWORD UPDATES
      * - Encodes raw password to BCrypt hash
-     * - Sets default USER role
+     * - New users: inserted with the default USER role
+     * - Existing users (id set): $set of userName and password only, never a rewrite of the document read earlier,
+     *   so concurrent $inc of journalCount / journalsVersion by journal writes are not lost and roles are kept
      * - Used in: PublicController (registration), UserController (password change)
      */
     public void saveOrUpdateUser(Users user) {
         try {
+            String storedUserName = storedUserName(user);
             // Always encode password when using this method
-            user.setPassword(passwordEncode.encode(user.getPassword()));
-            // Set default role for new users
-            user.setRoles(Arrays.asList("USER"));
-            userRepository.save(user);
+            user.setPassword(passwordEncoder.encode(user.getPassword()));
+            if (user.getId() == null) {
+                // Set default role for new users
+                user.setRoles(Arrays.asList("USER"));
+                userRepository.save(user);
+            } else {
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(user.getId())),
+                        new Update().set("userName", user.getUserName()).set("password", user.getPassword()), Users.class);
+            }
+            invalidateCachedCredentials(user.getUserName(), storedUserName);
         } catch (Exception e) {
             log.error("Failed to save/update user: {}", user.getUserName(), e);
             throw new RuntimeException("Error saving user: " + e.getMessage());
@@ -43,8 +84,9 @@ public class UserService {
      * FOR EXISTING USER UPDATES (NON-CREDENTIAL)
      * - Does NOT encode password (already encoded)
      * - Does NOT reset roles
-     * - Used in: JournalEntryService (adding/removing journal references)
-     * Critical: Use this when updating user's journal list to avoid double-encoding password
+     * - Rewrites the whole document, journal linking never goes through here
+     *   (owner id lives on JournalEntry, journalCount is adjusted with $inc)
+     * Critical: Use this for non-credential updates to avoid double-encoding password
      */
     public void saveUser(Users user) {
         try {
@@ -68,6 +110,42 @@ public class UserService {
         }
     }
 
+    /**
+     * Admin listing page, ordered by userName, resuming strictly after the given userName
+     * Projection only (id, userName, roles, journalCount) and keyset on the unique userName index,
+     * so memory per request is bounded by the page size
+     */
+    public UserPage getUsersPage(String role, String prefix, String after, int pageSize) {
+        try {
+            Query query = userListingQuery(role, prefix, after);
+            // Fetch one extra user to know whether another page exists
+            query.limit(pageSize + 1);
+            List<UserSummary> users = mongoTemplate.find(query, Users.class).stream().map(UserSummary::of).toList();
+
+            String nextCursor = null;
+            if (users.size() > pageSize) {
+                users = users.subList(0, pageSize);
+                nextCursor = users.get(pageSize - 1).getUserName();
+            }
+            return new UserPage(users, nextCursor);
+        } catch (Exception e) {
+            log.error("Failed to fetch users page", e);
+            throw new RuntimeException("Error fetching users: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the admin listing from a Mongo cursor, caller must close the returned stream
+     */
+    public Stream<UserSummary> streamUsers(String role, String prefix) {
+        try {
+            return mongoTemplate.stream(userListingQuery(role, prefix, null), Users.class).map(UserSummary::of);
+        } catch (Exception e) {
+            log.error("Failed to stream users", e);
+            throw new RuntimeException("Error fetching users: " + e.getMessage());
+        }
+    }
+
     /**
      * Fetches user by username (used for authentication and authorization)
      */
@@ -84,12 +162,122 @@ public class UserService {
         }
     }
 
+    /**
+     * Resolves only the user's id (projection on the unique userName index), null if the user does not exist
+     */
+    public ObjectId getUserIdByUsername(String userName) {
+        try {
+            Users user = userRepository.findIdByUserName(userName);
+            if (user == null) {
+                log.warn("User not found: {}", userName);
+                return null;
+            }
+            return user.getId();
+        } catch (Exception e) {
+            log.error("Failed to fetch user id: {}", userName, e);
+            throw new RuntimeException("Error fetching user: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resolves only the user's name by id, null if the user does not exist
+     */
+    public String getUserNameById(ObjectId userId) {
+        try {
+            Users user = userRepository.findUserNameById(userId);
+            return user != null ? user.getUserName() : null;
+        } catch (Exception e) {
+            log.error("Failed to fetch user name of id: {}", userId, e);
+            throw new RuntimeException("Error fetching user: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Atomically adjusts the user's journal counter and returns the user's id (null if the user does not exist)
+     * Single findAndModify with $inc: no read of the full document, no rewrite, no transaction
+     * The journal-set version is bumped in the same update
+     */
+    public ObjectId incrementJournalCount(String userName, long delta) {
+        try {
+            Query query = new Query(Criteria.where("userName").is(userName));
+            query.fields().include("_id");
+            Users user = mongoTemplate.findAndModify(query, journalCountUpdate(delta),
+                    FindAndModifyOptions.options().returnNew(true), Users.class);
+            return user != null ? user.getId() : null;
+        } catch (Exception e) {
+            log.error("Failed to update journal count of user: {}", userName, e);
+            throw new RuntimeException("Error updating user: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Same as incrementJournalCount, for callers that already know the user's id
+     */
+    public void incrementJournalCount(ObjectId userId, long delta) {
+        try {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(userId)),
+                    journalCountUpdate(delta), Users.class);
+        } catch (Exception e) {
+            log.error("Failed to update journal count of user id: {}", userId, e);
+            throw new RuntimeException("Error updating user: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Bumps the user's journal-set version after an edit of one of their journals (count unchanged)
+     */
+    public void incrementJournalsVersion(ObjectId userId) {
+        try {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(userId)),
+                    new Update().inc("journalsVersion", 1), Users.class);
+        } catch (Exception e) {
+            log.error("Failed to update journals version of user id: {}", userId, e);
+            throw new RuntimeException("Error updating user: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads only the user's journal-set version (projection on the unique userName index), null if the user does not exist
+     */
+    public Long getJournalsVersion(String userName) {
+        try {
+            Users user = userRepository.findJournalsVersionByUserName(userName);
+            return user != null ? user.getJournalsVersion() : null;
+        } catch (Exception e) {
+            log.error("Failed to fetch journals version: {}", userName, e);
+            throw new RuntimeException("Error fetching user: " + e.getMessage());
+        }
+    }
+
+    // Every change of the journal count is also a change of the journal set
+    private static Update journalCountUpdate(long delta) {
+        return new Update().inc("journalCount", delta).inc("journalsVersion", 1);
+    }
+
     /**
      * Deletes user and cascades to remove all their journals
+     * The purge job is persisted first, then the user document goes away, then the job runs in the background
+     * Returns that job, or null when there was no such user
      */
-    public void deleteSpecificUserByUsername(String userName) {
+    public PurgeJob deleteSpecificUserByUsername(String userName) {
         try {
-            userRepository.deleteByUserName(userName);
+            Users user = userRepository.findIdByUserName(userName);
+            if (user == null) {
+                return null;
+            }
+            PurgeJob job = journalPurgeService.create(user.getId(), userName);
+            try {
+                userRepository.deleteByUserName(userName);
+            } catch (RuntimeException e) {
+                journalPurgeService.cancel(job.getId());
+                throw e;
+            }
+            invalidateCachedCredentials(userName, null);
+            // A later user with the same name must not see these journals
+            journalCacheService.invalidateUser(userName);
+            invalidationBus.publish(userName, InvalidationBus.CREDENTIALS | InvalidationBus.JOURNALS);
+            journalPurgeService.schedule(job);
+            return job;
         } catch (Exception e) {
             log.error("Failed to delete user: {}", userName, e);
             throw new RuntimeException("Error deleting user: " + e.getMessage());
@@ -98,14 +286,79 @@ public class UserService {
 
     public void saveOrUpdateAdmin(Users user) {
         try {
+            String storedUserName = storedUserName(user);
             // Always encode password when using this method
-            user.setPassword(passwordEncode.encode(user.getPassword()));
+            user.setPassword(passwordEncoder.encode(user.getPassword()));
             // Set default role for new admin users
             user.setRoles(Arrays.asList("USER", "ADMIN"));
             userRepository.save(user);
+            invalidateCachedCredentials(user.getUserName(), storedUserName);
         } catch (Exception e) {
             log.error("Failed to save/update user: {}", user.getUserName(), e);
             throw new RuntimeException("Error saving user: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Name currently stored for an existing user (differs from user.getUserName() when this save renames it)
+     */
+    private String storedUserName(Users user) {
+        if (user.getId() == null) {
+            return null;
+        }
+        return userRepository.findById(user.getId()).map(Users::getUserName).orElse(null);
+    }
+
+    /**
+     * Drops cached credential verifications and cached principals after credentials or roles changed,
+     * under both old and new name
+     */
+    private void invalidateCachedCredentials(String userName, String storedUserName) {
+        credentialCacheService.invalidateUser(userName);
+        userDetailService.invalidate(userName);
+        invalidationBus.publish(userName, InvalidationBus.CREDENTIALS);
+        if (storedUserName != null && !storedUserName.equals(userName)) {
+            credentialCacheService.invalidateUser(storedUserName);
+            userDetailService.invalidate(storedUserName);
+            // Renamed: the old name is free again, its cached journals must go with it
+            journalCacheService.invalidateUser(storedUserName);
+            invalidationBus.publish(storedUserName, InvalidationBus.CREDENTIALS | InvalidationBus.JOURNALS);
+        }
+    }
+
+    // Projected listing query, a username prefix becomes an anchored regex that uses the userName index as a range
+    private Query userListingQuery(String role, String prefix, String after) {
+        Query query = new Query();
+        if (role != null && !role.isBlank()) {
+            query.addCriteria(Criteria.where("roles").is(role));
+        }
+        // Prefix and keyset position both constrain userName, so they share one criteria
+        Criteria userName = Criteria.where("userName");
+        boolean constrained = false;
+        if (prefix != null && !prefix.isEmpty()) {
+            userName.regex("^" + escapeRegex(prefix));
+            constrained = true;
+        }
+        if (after != null) {
+            userName.gt(after);
+            constrained = true;
+        }
+        if (constrained) {
+            query.addCriteria(userName);
+        }
+        query.fields().include("_id", "userName", "roles", "journalCount");
+        return query.with(Sort.by(Sort.Direction.ASC, "userName"));
+    }
+
+    // Plain backslash escaping (not \Q..\E) so Mongo still recognizes the regex as a simple prefix
+    static String escapeRegex(String literal) {
+        StringBuilder escaped = new StringBuilder(literal.length());
+        for (char c : literal.toCharArray()) {
+            if ("\\^$.|?*+()[]{}".indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
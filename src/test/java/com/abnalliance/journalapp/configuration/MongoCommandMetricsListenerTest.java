@@ -0,0 +1,52 @@
+package com.abnalliance.journalapp.configuration;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoCommandMetricsListenerTest {
+
+    // Test find replies count the documents of the first batch
+    @Test
+    void documents_FindReply_ShouldCountFirstBatch() {
+        // Arrange
+        BsonDocument response = BsonDocument.parse("{cursor: {id: 0, ns: 'db.journal_db', firstBatch: [{_id: 1}, {_id: 2}, {_id: 3}]}, ok: 1}");
+
+        // Act & Assert
+        assertEquals(3, MongoCommandMetricsListener.documents("find", response));
+    }
+
+    // Test getMore replies count the documents of the next batch
+    @Test
+    void documents_GetMoreReply_ShouldCountNextBatch() {
+        // Arrange
+        BsonDocument response = BsonDocument.parse("{cursor: {id: 0, ns: 'db.journal_db', nextBatch: [{_id: 4}]}, ok: 1}");
+
+        // Act & Assert
+        assertEquals(1, MongoCommandMetricsListener.documents("getMore", response));
+    }
+
+    // Test findAndModify counts one document only when something matched
+    @Test
+    void documents_FindAndModifyReply_ShouldCountMatchedValue() {
+        // Act & Assert
+        assertEquals(1, MongoCommandMetricsListener.documents("findAndModify", BsonDocument.parse("{value: {_id: 1}, ok: 1}")));
+        assertEquals(0, MongoCommandMetricsListener.documents("findAndModify", BsonDocument.parse("{value: null, ok: 1}")));
+    }
+
+    // Test write replies count the affected documents
+    @Test
+    void documents_WriteReply_ShouldUseN() {
+        // Act & Assert
+        assertEquals(500, MongoCommandMetricsListener.documents("insert", BsonDocument.parse("{n: 500, ok: 1}")));
+        assertEquals(2, MongoCommandMetricsListener.documents("delete", BsonDocument.parse("{n: 2, ok: 1}")));
+    }
+
+    // Test commands that touch no documents are not recorded
+    @Test
+    void documents_OtherCommand_ShouldBeSkipped() {
+        // Act & Assert
+        assertEquals(-1, MongoCommandMetricsListener.documents("hello", BsonDocument.parse("{ok: 1}")));
+    }
+}
@@ -0,0 +1,100 @@
+package com.abnalliance.journalapp.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordConfigTest {
+
+    private PasswordConfig passwordConfig;
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        passwordConfig = new PasswordConfig();
+        ReflectionTestUtils.setField(passwordConfig, "strength", 5);
+        ReflectionTestUtils.setField(passwordConfig, "threads", 2);
+        ReflectionTestUtils.setField(passwordConfig, "queueCapacity", 10);
+        passwordConfig.init();
+        passwordEncoder = passwordConfig.passwordEncoder();
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordConfig.shutdown();
+    }
+
+    // Test new hashes are prefixed, use the configured cost and need no upgrade
+    @Test
+    void encode_ShouldUsePrefixedHashWithConfiguredCost() {
+        // Act
+        String hash = passwordEncoder.encode("secret");
+
+        // Assert
+        assertTrue(hash.startsWith("{bcrypt}$2a$05$"));
+        assertTrue(passwordEncoder.matches("secret", hash));
+        assertFalse(passwordEncoder.matches("wrong", hash));
+        assertFalse(passwordEncoder.upgradeEncoding(hash));
+    }
+
+    // Test hashes stored before the prefix still verify and are flagged for rehash
+    @Test
+    void matches_WithLegacyHash_ShouldVerifyAndRequireUpgrade() {
+        // Arrange
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        // Act & Assert
+        assertTrue(passwordEncoder.matches("secret", legacy));
+        assertTrue(passwordEncoder.upgradeEncoding(legacy));
+    }
+
+    // Test prefixed hashes with a lower cost are flagged for rehash
+    @Test
+    void upgradeEncoding_WithLowerCost_ShouldRequireUpgrade() {
+        // Arrange
+        String weaker = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret");
+
+        // Act & Assert
+        assertTrue(passwordEncoder.matches("secret", weaker));
+        assertTrue(passwordEncoder.upgradeEncoding(weaker));
+    }
+
+    // Test calibration stays within bounds and only raises the cost while the target allows it
+    @Test
+    void calibrate_ShouldRespectBoundsAndTarget() {
+        // Act & Assert
+        assertEquals(4, PasswordConfig.calibrate(Duration.ZERO, 4, 6));
+        assertEquals(5, PasswordConfig.calibrate(Duration.ofMinutes(1), 4, 5));
+    }
+
+    // Test a full hashing queue fails fast instead of waiting
+    @Test
+    void encode_WithFullQueue_ShouldFailFast() throws Exception {
+        // Arrange
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> {
+            release.await();
+            return null;
+        });
+        executor.submit(() -> null);
+        PasswordEncoder encoder = new ExecutorPasswordEncoder(new BCryptPasswordEncoder(4), executor, null);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> encoder.encode("secret"));
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,148 @@
+package com.abnalliance.journalapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlServiceTest {
+
+    private CredentialCacheService credentialCacheService;
+    private AdmissionControlService admissionControlService;
+
+    @BeforeEach
+    void setUp() {
+        credentialCacheService = new CredentialCacheService();
+        ReflectionTestUtils.setField(credentialCacheService, "enabled", true);
+        ReflectionTestUtils.setField(credentialCacheService, "maxSize", 100L);
+        ReflectionTestUtils.setField(credentialCacheService, "ttl", Duration.ofMinutes(5));
+        credentialCacheService.init();
+
+        admissionControlService = new AdmissionControlService();
+        ReflectionTestUtils.setField(admissionControlService, "enabled", true);
+        ReflectionTestUtils.setField(admissionControlService, "userCapacity", 3);
+        ReflectionTestUtils.setField(admissionControlService, "userRefillPerSecond", 1.0);
+        ReflectionTestUtils.setField(admissionControlService, "sourceCapacity", 5);
+        ReflectionTestUtils.setField(admissionControlService, "sourceRefillPerSecond", 1.0);
+        ReflectionTestUtils.setField(admissionControlService, "maxTracked", 100L);
+        ReflectionTestUtils.setField(admissionControlService, "idleTimeout", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(admissionControlService, "hashingMaxConcurrent", 1);
+        ReflectionTestUtils.setField(admissionControlService, "hashingRetryAfter", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(admissionControlService, "hashingPaths", List.of("POST /public/create-user", " PUT  /user"));
+        ReflectionTestUtils.setField(admissionControlService, "credentialCacheService", credentialCacheService);
+        admissionControlService.init();
+    }
+
+    // Test a bucket admits its capacity at once, then refuses until a token is refilled
+    @Test
+    void tokenBucket_ShouldAllowBurstThenRefill() {
+        // Arrange
+        AdmissionControlService.TokenBucket bucket = new AdmissionControlService.TokenBucket(2, 10);
+        long now = 0;
+
+        // Act & Assert
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    // Test an idle bucket refills up to its capacity and not beyond
+    @Test
+    void tokenBucket_AfterLongIdle_ShouldNotExceedCapacity() {
+        // Arrange
+        AdmissionControlService.TokenBucket bucket = new AdmissionControlService.TokenBucket(2, 10);
+        bucket.tryAcquire(0);
+        long later = TimeUnit.SECONDS.toNanos(60);
+
+        // Act & Assert
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    // Test a user over its limit is rejected with a Retry-After while other users are not
+    @Test
+    void checkUserRate_UserOverLimit_ShouldReturnRetryAfter() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, admissionControlService.checkUserRate("testuser"));
+        }
+
+        // Act
+        long retryAfter = admissionControlService.checkUserRate("testuser");
+
+        // Assert
+        assertEquals(1, retryAfter);
+        assertEquals(0, admissionControlService.checkUserRate("otheruser"));
+        assertEquals(0, admissionControlService.checkUserRate(null));
+    }
+
+    // Test a source over its limit is rejected while other sources are not
+    @Test
+    void checkSourceRate_SourceOverLimit_ShouldReturnRetryAfter() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, admissionControlService.checkSourceRate("10.0.0.1"));
+        }
+
+        // Act & Assert
+        assertTrue(admissionControlService.checkSourceRate("10.0.0.1") > 0);
+        assertEquals(0, admissionControlService.checkSourceRate("10.0.0.2"));
+        assertEquals(0, admissionControlService.checkSourceRate(null));
+    }
+
+    // Test hashing paths and uncached Basic credentials require hashing, cached ones do not
+    @Test
+    void requiresHashing_ShouldMatchPathsAndUncachedBasicCredentials() {
+        // Arrange
+        String basic = basic("testuser", "secret");
+        String key = admissionControlService.credentialKey(basic);
+
+        // Act & Assert
+        assertEquals(credentialCacheService.key("testuser", "secret"), key);
+        assertNull(admissionControlService.credentialKey("Bearer token"));
+        assertTrue(admissionControlService.requiresHashing("POST", "/public/create-user", null, null));
+        assertTrue(admissionControlService.requiresHashing("PUT", "/user", null, null));
+        assertFalse(admissionControlService.requiresHashing("GET", "/journal", "Bearer token", null));
+        assertTrue(admissionControlService.requiresHashing("GET", "/journal", basic, key));
+
+        credentialCacheService.put(key, UsernamePasswordAuthenticationToken.authenticated("testuser", null, List.of()));
+        assertFalse(admissionControlService.requiresHashing("GET", "/journal", basic, key));
+    }
+
+    // Test Basic credentials always require hashing without a credential cache
+    @Test
+    void requiresHashing_WithCacheDisabled_ShouldRequireHashingForBasic() {
+        // Arrange
+        ReflectionTestUtils.setField(credentialCacheService, "enabled", false);
+        String basic = basic("testuser", "secret");
+
+        // Act & Assert
+        assertNull(admissionControlService.credentialKey(basic));
+        assertTrue(admissionControlService.requiresHashing("GET", "/journal", basic, null));
+    }
+
+    // Test hashing is saturated only while every permit is held, and free again after release
+    @Test
+    void isHashingSaturated_WhilePermitsHeld_ShouldRefuseUntilReleased() throws InterruptedException {
+        // Act & Assert
+        assertFalse(admissionControlService.isHashingSaturated());
+        admissionControlService.acquireHashing();
+        assertTrue(admissionControlService.isHashingSaturated());
+        admissionControlService.releaseHashing();
+        assertFalse(admissionControlService.isHashingSaturated());
+    }
+
+    private static String basic(String userName, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((userName + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
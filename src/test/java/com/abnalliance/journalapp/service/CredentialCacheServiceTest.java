@@ -0,0 +1,76 @@
+package com.abnalliance.journalapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialCacheServiceTest {
+
+    private CredentialCacheService credentialCacheService;
+
+    @BeforeEach
+    void setUp() {
+        credentialCacheService = new CredentialCacheService();
+        ReflectionTestUtils.setField(credentialCacheService, "enabled", true);
+        ReflectionTestUtils.setField(credentialCacheService, "maxSize", 100L);
+        ReflectionTestUtils.setField(credentialCacheService, "ttl", Duration.ofMinutes(5));
+        credentialCacheService.init();
+    }
+
+    private Authentication authenticated(String userName) {
+        return UsernamePasswordAuthenticationToken.authenticated(userName, null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+    }
+
+    // Test key is stable for same credentials and differs for a different password
+    @Test
+    void key_ShouldBeDeterministicAndPasswordSensitive() {
+        // Act
+        String key = credentialCacheService.key("testuser", "secret");
+
+        // Assert
+        assertEquals(key, credentialCacheService.key("testuser", "secret"));
+        assertNotEquals(key, credentialCacheService.key("testuser", "secret2"));
+        assertFalse(key.contains("secret"));
+    }
+
+    // Test cached verification is returned and counted as hit
+    @Test
+    void get_AfterPut_ShouldReturnCachedAuthenticationAndRecordHit() {
+        // Arrange
+        String key = credentialCacheService.key("testuser", "secret");
+        credentialCacheService.put(key, authenticated("testuser"));
+
+        // Act
+        Authentication cached = credentialCacheService.get(key);
+
+        // Assert
+        assertNotNull(cached);
+        assertEquals("testuser", cached.getName());
+        assertEquals(1, credentialCacheService.stats().hitCount());
+    }
+
+    // Test invalidation only drops entries of the given user
+    @Test
+    void invalidateUser_ShouldDropOnlyThatUsersEntries() {
+        // Arrange
+        String userKey = credentialCacheService.key("testuser", "secret");
+        String otherKey = credentialCacheService.key("other", "secret");
+        credentialCacheService.put(userKey, authenticated("testuser"));
+        credentialCacheService.put(otherKey, authenticated("other"));
+
+        // Act
+        credentialCacheService.invalidateUser("testuser");
+
+        // Assert
+        assertNull(credentialCacheService.get(userKey));
+        assertNotNull(credentialCacheService.get(otherKey));
+        assertEquals(1, credentialCacheService.stats().missCount());
+    }
+}
@@ -0,0 +1,133 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.InvalidationBatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InvalidationBusTest {
+
+    private InMemoryInvalidationTransport transport;
+    private CredentialCacheService credentialCacheService;
+    private UserDetailServiceImp userDetailService;
+    private JournalCacheService journalCacheService;
+    private InvalidationBus local;
+    private InvalidationBus remote;
+
+    @BeforeEach
+    void setUp() {
+        transport = new InMemoryInvalidationTransport();
+        credentialCacheService = mock(CredentialCacheService.class);
+        userDetailService = mock(UserDetailServiceImp.class);
+        journalCacheService = mock(JournalCacheService.class);
+        local = newBus(transport, mock(CredentialCacheService.class), mock(UserDetailServiceImp.class), mock(JournalCacheService.class));
+        remote = newBus(transport.peer(), credentialCacheService, userDetailService, journalCacheService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        local.shutdown();
+        remote.shutdown();
+    }
+
+    // Test a write on one replica invalidates the matching caches on the other
+    @Test
+    void flush_WithJournalWrite_ShouldInvalidateJournalsOnOtherReplica() {
+        // Arrange
+        local.publish("testuser", InvalidationBus.JOURNALS);
+
+        // Act
+        local.flush();
+
+        // Assert
+        verify(journalCacheService, times(1)).invalidateUser("testuser");
+        verify(credentialCacheService, never()).invalidateUser(any());
+        verify(userDetailService, never()).invalidate(any());
+    }
+
+    // Test events for one user are coalesced into a single event with all scopes
+    @Test
+    void publish_SameUserTwice_ShouldCoalesceScopes() {
+        // Arrange
+        InMemoryInvalidationTransport observer = transport.peer();
+        InvalidationBatch[] received = new InvalidationBatch[1];
+        observer.start(batch -> received[0] = batch, () -> { });
+        local.publish("testuser", InvalidationBus.CREDENTIALS);
+        local.publish("testuser", InvalidationBus.JOURNALS);
+
+        // Act
+        local.flush();
+
+        // Assert
+        assertEquals(Map.of("testuser", InvalidationBus.CREDENTIALS | InvalidationBus.JOURNALS), received[0].getUsers());
+        verify(credentialCacheService, times(1)).invalidateUser("testuser");
+        verify(userDetailService, times(1)).invalidate("testuser");
+        verify(journalCacheService, times(1)).invalidateUser("testuser");
+        observer.stop();
+    }
+
+    // Test a replica ignores its own batches (its caches were invalidated by the writer)
+    @Test
+    void apply_OwnBatch_ShouldBeIgnored() {
+        // Arrange
+        remote.publish("testuser", InvalidationBus.CREDENTIALS);
+
+        // Act
+        remote.flush();
+
+        // Assert
+        verify(credentialCacheService, never()).invalidateUser(any());
+    }
+
+    // Test events are kept and sent again when publishing fails
+    @Test
+    void flush_WhenTransportFails_ShouldRetryOnNextFlush() {
+        // Arrange
+        InvalidationTransport failing = mock(InvalidationTransport.class);
+        doThrow(new RuntimeException("down")).doNothing().when(failing).publish(any());
+        InvalidationBus bus = newBus(failing, credentialCacheService, userDetailService, journalCacheService);
+        bus.publish("testuser", InvalidationBus.JOURNALS);
+
+        // Act
+        bus.flush();
+        bus.flush();
+
+        // Assert
+        verify(failing, times(2)).publish(any());
+        bus.shutdown();
+    }
+
+    // Test a delivery gap clears every local cache
+    @Test
+    void invalidateAllLocal_ShouldClearAllCaches() {
+        // Act
+        remote.invalidateAllLocal();
+
+        // Assert
+        verify(credentialCacheService, times(1)).invalidateAll();
+        verify(userDetailService, times(1)).invalidateAll();
+        verify(journalCacheService, times(1)).invalidateAll();
+    }
+
+    private static InvalidationBus newBus(InvalidationTransport transport, CredentialCacheService credentialCacheService,
+                                          UserDetailServiceImp userDetailService, JournalCacheService journalCacheService) {
+        InvalidationBus bus = new InvalidationBus();
+        ReflectionTestUtils.setField(bus, "transport", transport);
+        ReflectionTestUtils.setField(bus, "credentialCacheService", credentialCacheService);
+        ReflectionTestUtils.setField(bus, "userDetailService", userDetailService);
+        ReflectionTestUtils.setField(bus, "journalCacheService", journalCacheService);
+        // Flushed explicitly by the tests
+        ReflectionTestUtils.setField(bus, "publishInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(bus, "maxBatch", 1000);
+        bus.init();
+        return bus;
+    }
+}
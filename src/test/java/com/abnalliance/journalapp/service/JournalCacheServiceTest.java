@@ -0,0 +1,127 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.JournalPage;
+import com.abnalliance.journalapp.entity.JournalEntry;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalCacheServiceTest {
+
+    private JournalCacheService journalCacheService;
+
+    @BeforeEach
+    void setUp() {
+        journalCacheService = new JournalCacheService();
+        ReflectionTestUtils.setField(journalCacheService, "enabled", true);
+        ReflectionTestUtils.setField(journalCacheService, "maxMemory", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(journalCacheService, "ttl", Duration.ofMinutes(5));
+        journalCacheService.init();
+    }
+
+    // Test the per-user generations are bounded by the memory budget instead of growing with every user seen
+    @Test
+    void init_ShouldBoundGenerationsByMemoryBudget() {
+        // Arrange
+        Cache<?, ?> generations = (Cache<?, ?>) ReflectionTestUtils.getField(journalCacheService, "generations");
+
+        // Act
+        long maximum = generations.policy().eviction().orElseThrow().getMaximum();
+
+        // Assert
+        assertEquals(DataSize.ofMegabytes(1).toBytes() / 16 / JournalCacheService.GENERATION_BYTES, maximum);
+    }
+
+    // Test a cached page is served for the same request
+    @Test
+    void getPage_AfterPut_ShouldReturnPage() {
+        // Arrange
+        JournalPage page = new JournalPage(List.of(entry("Content")), null);
+        journalCacheService.putPage(journalCacheService.pageKey("testuser", 1, null, 20, null, null), page);
+
+        // Act & Assert
+        assertSame(page, journalCacheService.getPage(journalCacheService.pageKey("testuser", 1, null, 20, null, null)));
+        assertNull(journalCacheService.getPage(journalCacheService.pageKey("testuser", 1, null, 10, null, null)));
+    }
+
+    // Test a page cached under one journal-set version is not served for another (ETag and body stay paired)
+    @Test
+    void getPage_WithOtherJournalsVersion_ShouldMiss() {
+        // Arrange
+        JournalPage page = new JournalPage(List.of(entry("Content")), null);
+        journalCacheService.putPage(journalCacheService.pageKey("testuser", 1, null, 20, null, null), page);
+
+        // Act & Assert
+        assertNull(journalCacheService.getPage(journalCacheService.pageKey("testuser", 2, null, 20, null, null)));
+    }
+
+    // Test invalidation hides the user's cached reads but not other users'
+    @Test
+    void invalidateUser_ShouldOnlyAffectThatUser() {
+        // Arrange
+        ObjectId id = new ObjectId();
+        JournalEntry entry = entry("Content");
+        journalCacheService.putEntry(journalCacheService.entryKey("testuser", id), entry);
+        journalCacheService.putEntry(journalCacheService.entryKey("otheruser", id), entry);
+
+        // Act
+        journalCacheService.invalidateUser("testuser");
+
+        // Assert
+        assertNull(journalCacheService.getEntry(journalCacheService.entryKey("testuser", id)));
+        assertSame(entry, journalCacheService.getEntry(journalCacheService.entryKey("otheruser", id)));
+    }
+
+    // Test a read that started before a write cannot publish its result after the write
+    @Test
+    void putEntry_WithKeyTakenBeforeInvalidation_ShouldNotBeVisible() {
+        // Arrange
+        ObjectId id = new ObjectId();
+        JournalCacheService.EntryKey staleKey = journalCacheService.entryKey("testuser", id);
+        journalCacheService.invalidateUser("testuser");
+
+        // Act
+        journalCacheService.putEntry(staleKey, entry("Old content"));
+
+        // Assert
+        assertNull(journalCacheService.getEntry(journalCacheService.entryKey("testuser", id)));
+    }
+
+    // Test weight grows with the text held by the page
+    @Test
+    void weigh_Page_ShouldCountTextOfAllEntries() {
+        // Arrange
+        JournalPage small = new JournalPage(List.of(entry("x")), null);
+        JournalPage large = new JournalPage(List.of(entry("x".repeat(1000)), entry("x".repeat(1000))), null);
+
+        // Act & Assert
+        assertTrue(JournalCacheService.weigh(null, large) - JournalCacheService.weigh(null, small) >= 2 * 2 * 999);
+    }
+
+    // Test nothing is cached when disabled
+    @Test
+    void pageKey_WhenDisabled_ShouldBeNull() {
+        // Arrange
+        ReflectionTestUtils.setField(journalCacheService, "enabled", false);
+
+        // Act & Assert
+        assertNull(journalCacheService.pageKey("testuser", 1, null, 20, null, null));
+        assertNull(journalCacheService.getPage(null));
+    }
+
+    private static JournalEntry entry(String content) {
+        JournalEntry entry = new JournalEntry();
+        entry.setId(new ObjectId());
+        entry.setTitle("Title");
+        entry.setContent(content);
+        return entry;
+    }
+}
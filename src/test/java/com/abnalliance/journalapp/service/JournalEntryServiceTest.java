@@ -1,8 +1,11 @@
 package com.abnalliance.journalapp.service;
 
+import com.abnalliance.journalapp.dto.BatchItemResult;
+import com.abnalliance.journalapp.dto.JournalCursor;
+import com.abnalliance.journalapp.dto.JournalPage;
 import com.abnalliance.journalapp.entity.JournalEntry;
-import com.abnalliance.journalapp.entity.Users;
 import com.abnalliance.journalapp.repository.JournalEntryRepository;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,17 +13,27 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,58 +45,108 @@ class JournalEntryServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private JournalCacheService journalCacheService;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
     @InjectMocks
     private JournalEntryService journalEntryService;
 
     private JournalEntry testEntry;
-    private Users testUser;
     private ObjectId testId;
+    private ObjectId testUserId;
 
     @BeforeEach
     void setUp() {
         testId = new ObjectId();
+        testUserId = new ObjectId();
         testEntry = new JournalEntry();
         testEntry.setId(testId);
         testEntry.setTitle("Test Title");
         testEntry.setContent("Test Content");
-
-        testUser = new Users();
-        testUser.setUserName("testuser");
-        testUser.setPassword("password");
-        testUser.setJournalEntries(Arrays.asList(testEntry));
+        testEntry.setUserId(testUserId);
     }
 
     // Test saving journal entry with valid user
     @Test
-    void saveJournalEntry_WithValidUser_ShouldSaveEntryAndUpdateUser() {
+    void saveJournalEntry_WithValidUser_ShouldSaveEntryWithOwnerId() {
         // Arrange
-        when(userService.getSpecificUserByUsername("testuser")).thenReturn(testUser);
-        when(journalEntryRepository.save(any(JournalEntry.class))).thenReturn(testEntry);
+        JournalEntry newEntry = new JournalEntry();
+        newEntry.setTitle("New Title");
+        when(userService.incrementJournalCount("testuser", 1)).thenReturn(testUserId);
+        when(journalEntryRepository.save(any(JournalEntry.class))).thenReturn(newEntry);
 
         // Act
-        journalEntryService.saveJournalEntry(testEntry, "testuser");
+        journalEntryService.saveJournalEntry(newEntry, "testuser");
 
         // Assert
-        verify(journalEntryRepository, times(1)).save(testEntry);
-        verify(userService, times(1)).saveUser(testUser);
-        assertEquals(LocalDate.now(), testEntry.getDate());
-        assertTrue(testUser.getJournalEntries().contains(testEntry));
+        verify(journalEntryRepository, times(1)).save(newEntry);
+        verify(userService, never()).saveUser(any());
+        assertEquals(LocalDate.now(), newEntry.getDate());
+        assertNotNull(newEntry.getCreatedAt());
+        assertEquals(newEntry.getCreatedAt(), newEntry.getUpdatedAt());
+        assertEquals(testUserId, newEntry.getUserId());
+        // Listing version moves on again after the insert, not only before it
+        verify(userService, times(1)).incrementJournalsVersion(testUserId);
+    }
+
+    // Test failed insert compensates the journal counter
+    @Test
+    void saveJournalEntry_WhenInsertFails_ShouldDecrementJournalCount() {
+        // Arrange
+        when(userService.incrementJournalCount("testuser", 1)).thenReturn(testUserId);
+        when(journalEntryRepository.save(testEntry)).thenThrow(new RuntimeException("Database error"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> journalEntryService.saveJournalEntry(testEntry, "testuser"));
+        verify(userService, times(1)).incrementJournalCount(testUserId, -1);
+    }
+
+    // Test batch insert skips invalid entries and links only inserted ones
+    @Test
+    void saveJournalEntries_WithInvalidEntry_ShouldBulkInsertValidOnesAndLinkOnce() {
+        // Arrange
+        JournalEntry untitled = new JournalEntry();
+        JournalEntry second = new JournalEntry();
+        second.setTitle("Second");
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(userService.getUserIdByUsername("testuser")).thenReturn(testUserId);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, JournalEntry.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+
+        // Act
+        List<BatchItemResult> results = journalEntryService.saveJournalEntries(
+                Arrays.asList(testEntry, untitled, second), "testuser");
+
+        // Assert
+        assertEquals(3, results.size());
+        assertEquals(BatchItemResult.CREATED, results.get(0).getStatus());
+        assertEquals(BatchItemResult.INVALID, results.get(1).getStatus());
+        assertEquals(BatchItemResult.CREATED, results.get(2).getStatus());
+        assertEquals(testUserId, second.getUserId());
+        verify(bulkOperations, times(1)).insert(List.of(testEntry, second));
+        verify(bulkOperations, times(1)).execute();
+        verify(userService, times(1)).incrementJournalCount(testUserId, 2);
     }
 
     // Test saving journal entry with non-existent user
     @Test
     void saveJournalEntry_WithNonExistentUser_ShouldThrowException() {
         // Arrange
-        when(userService.getSpecificUserByUsername("nonexistent")).thenReturn(null);
+        when(userService.incrementJournalCount("nonexistent", 1)).thenReturn(null);
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             journalEntryService.saveJournalEntry(testEntry, "nonexistent");
         });
 
-        assertEquals("User not found: nonexistent", exception.getMessage());
+        assertEquals("Error saving journal entry: User not found: nonexistent", exception.getMessage());
         verify(journalEntryRepository, never()).save(any());
-        verify(userService, never()).saveUser(any());
     }
 
     // Test saving journal entry with null or empty username
@@ -92,7 +155,7 @@ class JournalEntryServiceTest {
     @ValueSource(strings = {" ", "   "})
     void saveJournalEntry_WithInvalidUsername_ShouldThrowException(String username) {
         // Arrange
-        when(userService.getSpecificUserByUsername(username)).thenReturn(null);
+        when(userService.incrementJournalCount(username, 1)).thenReturn(null);
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> {
@@ -117,7 +180,8 @@ class JournalEntryServiceTest {
     @Test
     void getAllJournalEntries_WithValidUser_ShouldReturnEntries() {
         // Arrange
-        when(userService.getSpecificUserByUsername("testuser")).thenReturn(testUser);
+        when(userService.getUserIdByUsername("testuser")).thenReturn(testUserId);
+        when(journalEntryRepository.findByUserId(testUserId)).thenReturn(List.of(testEntry));
 
         // Act
         List<JournalEntry> entries = journalEntryService.getAllJournalEntries("testuser");
@@ -132,14 +196,97 @@ class JournalEntryServiceTest {
     @Test
     void getAllJournalEntries_WithNonExistentUser_ShouldThrowException() {
         // Arrange
-        when(userService.getSpecificUserByUsername("nonexistent")).thenReturn(null);
+        when(userService.getUserIdByUsername("nonexistent")).thenReturn(null);
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             journalEntryService.getAllJournalEntries("nonexistent");
         });
 
-        assertEquals("User not found: nonexistent", exception.getMessage());
+        assertEquals("Error fetching journal entries: User not found: nonexistent", exception.getMessage());
+        verify(journalEntryRepository, never()).findByUserId(any());
+    }
+
+    // Test first page when more entries exist than fit on it
+    @Test
+    void getJournalEntriesPage_WithMoreEntries_ShouldReturnPageAndNextCursor() {
+        // Arrange
+        JournalEntry older = new JournalEntry();
+        older.setId(new ObjectId());
+        older.setDate(LocalDate.now().minusDays(1));
+        testEntry.setDate(LocalDate.now());
+        when(userService.getUserIdByUsername("testuser")).thenReturn(testUserId);
+        when(mongoTemplate.find(any(Query.class), eq(JournalEntry.class)))
+                .thenReturn(new ArrayList<>(List.of(testEntry, older)));
+
+        // Act
+        JournalPage page = journalEntryService.getJournalEntriesPage("testuser", null, 1, null, null);
+
+        // Assert
+        assertEquals(List.of(testEntry), page.getEntries());
+        assertEquals(JournalCursor.after(testEntry), JournalCursor.decode(page.getNextCursor()));
+    }
+
+    // Test a page cached under the caller's journal-set version is served without a query
+    @Test
+    void getJournalEntriesPage_WithCachedVersion_ShouldReturnCachedPage() {
+        // Arrange
+        JournalPage cached = new JournalPage(List.of(testEntry), null);
+        JournalCacheService.PageKey key = new JournalCacheService.PageKey("testuser", 1, 7, null, 20, null, null);
+        when(journalCacheService.pageKey("testuser", 7L, null, 20, null, null)).thenReturn(key);
+        when(journalCacheService.getPage(key)).thenReturn(cached);
+
+        // Act
+        JournalPage page = journalEntryService.getJournalEntriesPage("testuser", null, 20, null, null, 7L);
+
+        // Assert
+        assertSame(cached, page);
+        verify(mongoTemplate, never()).find(any(Query.class), eq(JournalEntry.class));
+    }
+
+    // Test last page
+    @Test
+    void getJournalEntriesPage_OnLastPage_ShouldReturnNullCursor() {
+        // Arrange
+        testEntry.setDate(LocalDate.now());
+        JournalCursor cursor = new JournalCursor(LocalDate.now(), new ObjectId());
+        when(userService.getUserIdByUsername("testuser")).thenReturn(testUserId);
+        when(mongoTemplate.find(any(Query.class), eq(JournalEntry.class))).thenReturn(List.of(testEntry));
+
+        // Act
+        JournalPage page = journalEntryService.getJournalEntriesPage("testuser", cursor, 20, null, null);
+
+        // Assert
+        assertEquals(1, page.getEntries().size());
+        assertNull(page.getNextCursor());
+    }
+
+    // Test date range bounds the listing query on the date key
+    @Test
+    void getJournalEntriesPage_WithDateRange_ShouldBoundQueryOnDate() {
+        // Arrange
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 7);
+        when(userService.getUserIdByUsername("testuser")).thenReturn(testUserId);
+        when(mongoTemplate.find(any(Query.class), eq(JournalEntry.class))).thenReturn(List.of());
+
+        // Act
+        journalEntryService.getJournalEntriesPage("testuser", null, 20, from, to);
+
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(JournalEntry.class));
+        Document date = (Document) query.getValue().getQueryObject().get("date");
+        assertEquals(from, date.get("$gte"));
+        assertEquals(to, date.get("$lte"));
+        assertEquals(testUserId, query.getValue().getQueryObject().get("userId"));
+    }
+
+    // Test malformed cursor token
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not-a-cursor", "MjAyNC0wMS0wMQ"})
+    void decodeCursor_WithMalformedToken_ShouldThrowIllegalArgumentException(String token) {
+        assertThrows(IllegalArgumentException.class, () -> JournalCursor.decode(token));
     }
 
     // Test getting specific journal entry by ID
@@ -170,51 +317,206 @@ class JournalEntryServiceTest {
         assertFalse(result.isPresent());
     }
 
+    // Test getting journal entry owned by the user
+    @Test
+    void getSpecificEntryOfUser_WithOwnedEntry_ShouldReturnEntry() {
+        // Arrange
+        when(userService.getUserIdByUsername("testuser")).thenReturn(testUserId);
+        when(journalEntryRepository.findByIdAndUserId(testId, testUserId)).thenReturn(Optional.of(testEntry));
+
+        // Act
+        Optional<JournalEntry> result = journalEntryService.getSpecificEntryOfUser(testId, "testuser");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(testEntry, result.get());
+    }
+
+    // Test a cached entry is returned without resolving the user or querying journals
+    @Test
+    void getSpecificEntryOfUser_WithCachedEntry_ShouldNotQueryMongo() {
+        // Arrange
+        JournalCacheService.EntryKey key = new JournalCacheService.EntryKey("testuser", 1, testId);
+        when(journalCacheService.entryKey("testuser", testId)).thenReturn(key);
+        when(journalCacheService.getEntry(key)).thenReturn(testEntry);
+
+        // Act
+        Optional<JournalEntry> result = journalEntryService.getSpecificEntryOfUser(testId, "testuser");
+
+        // Assert
+        assertEquals(Optional.of(testEntry), result);
+        verify(userService, never()).getUserIdByUsername(any());
+        verify(journalEntryRepository, never()).findByIdAndUserId(any(), any());
+    }
+
+    // Test getting journal entry for non-existent user
+    @Test
+    void getSpecificEntryOfUser_WithNonExistentUser_ShouldReturnEmpty() {
+        // Arrange
+        when(userService.getUserIdByUsername("nonexistent")).thenReturn(null);
+
+        // Act
+        Optional<JournalEntry> result = journalEntryService.getSpecificEntryOfUser(testId, "nonexistent");
+
+        // Assert
+        assertFalse(result.isPresent());
+        verify(journalEntryRepository, never()).findByIdAndUserId(any(), any());
+    }
+
+    // Test patch sets only the provided fields in one conditional update
+    @Test
+    void patchJournalEntry_WithTitleOnly_ShouldSetOnlyTitle() {
+        // Arrange
+        JournalEntry patch = new JournalEntry();
+        patch.setTitle("New Title");
+        when(userService.getUserIdByUsername("testuser")).thenReturn(testUserId);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(JournalEntry.class)))
+                .thenReturn(testEntry);
+
+        // Act
+        Optional<JournalEntry> result = journalEntryService.patchJournalEntry(testId, patch, "testuser");
+
+        // Assert
+        assertTrue(result.isPresent());
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(JournalEntry.class));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals("New Title", set.get("title"));
+        assertFalse(set.containsKey("content"));
+        verify(journalEntryRepository, never()).findById(any());
+        verify(journalEntryRepository, never()).save(any());
+    }
+
+    // Test patch of an entry the user does not own
+    @Test
+    void patchJournalEntry_WithNotOwnedEntry_ShouldReturnEmpty() {
+        // Arrange
+        JournalEntry patch = new JournalEntry();
+        patch.setContent("New Content");
+        when(userService.getUserIdByUsername("testuser")).thenReturn(testUserId);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(JournalEntry.class)))
+                .thenReturn(null);
+
+        // Act & Assert
+        assertFalse(journalEntryService.patchJournalEntry(testId, patch, "testuser").isPresent());
+    }
+
+    // Test patch bumps the entry version and the owner's journal-set version
+    @Test
+    void patchJournalEntry_WithChange_ShouldIncrementVersions() {
+        // Arrange
+        JournalEntry patch = new JournalEntry();
+        patch.setContent("New Content");
+        when(userService.getUserIdByUsername("testuser")).thenReturn(testUserId);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(JournalEntry.class)))
+                .thenReturn(testEntry);
+
+        // Act
+        journalEntryService.patchJournalEntry(testId, patch, "testuser");
+
+        // Assert
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(JournalEntry.class));
+        assertEquals(1, ((Document) update.getValue().getUpdateObject().get("$inc")).get("version"));
+        verify(userService, times(1)).incrementJournalsVersion(testUserId);
+    }
+
+    // Test conditional patch puts the expected versions in the filter and leaves versions alone when it does not match
+    @Test
+    void patchJournalEntry_WithStaleVersion_ShouldReturnEmptyWithoutVersionBump() {
+        // Arrange
+        JournalEntry patch = new JournalEntry();
+        patch.setTitle("New Title");
+        when(userService.getUserIdByUsername("testuser")).thenReturn(testUserId);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(JournalEntry.class)))
+                .thenReturn(null);
+
+        // Act
+        Optional<JournalEntry> result = journalEntryService.patchJournalEntry(testId, patch, "testuser", List.of(3L));
+
+        // Assert
+        assertFalse(result.isPresent());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(JournalEntry.class));
+        assertEquals(new Document("$in", List.of(3L)), query.getValue().getQueryObject().get("version"));
+        verify(userService, never()).incrementJournalsVersion(any());
+    }
+
+    // Test entry version lookup projects only the version
+    @Test
+    void getEntryVersion_WithOwnedEntry_ShouldReturnVersion() {
+        // Arrange
+        testEntry.setVersion(7);
+        when(userService.getUserIdByUsername("testuser")).thenReturn(testUserId);
+        when(mongoTemplate.findOne(any(Query.class), eq(JournalEntry.class))).thenReturn(testEntry);
+
+        // Act
+        Optional<Long> result = journalEntryService.getEntryVersion(testId, "testuser");
+
+        // Assert
+        assertEquals(Optional.of(7L), result);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(JournalEntry.class));
+        assertEquals(new Document("version", 1), query.getValue().getFieldsObject());
+        verify(journalEntryRepository, never()).findByIdAndUserId(any(), any());
+    }
+
+    // Test journal-set version of an unknown user
+    @Test
+    void getJournalsVersion_WithNonExistentUser_ShouldThrowException() {
+        // Arrange
+        when(userService.getJournalsVersion("nonexistent")).thenReturn(null);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> journalEntryService.getJournalsVersion("nonexistent"));
+        assertEquals("Error fetching journal entries: User not found: nonexistent", exception.getMessage());
+    }
+
     // Test deleting existing journal entry
     @Test
     void deleteSpecificEntryById_WithValidIdAndUser_ShouldDeleteEntry() {
         // Arrange
-        when(userService.getSpecificUserByUsername("testuser")).thenReturn(testUser);
+        when(userService.getUserIdByUsername("testuser")).thenReturn(testUserId);
+        when(journalEntryRepository.deleteByIdAndUserId(testId, testUserId)).thenReturn(1L);
 
         // Act
         journalEntryService.deleteSpecificEntryById(testId, "testuser");
 
         // Assert
-        verify(journalEntryRepository, times(1)).deleteById(testId);
-        verify(userService, times(1)).saveUser(testUser);
-        assertFalse(testUser.getJournalEntries().contains(testEntry));
+        verify(journalEntryRepository, times(1)).deleteByIdAndUserId(testId, testUserId);
+        verify(userService, times(1)).incrementJournalCount(testUserId, -1);
+        verify(journalCacheService, times(1)).invalidateUser("testuser");
     }
 
-    // Test deleting non-existent journal entry from user's list
+    // Test deleting journal entry not owned by the user
     @Test
     void deleteSpecificEntryById_WithNonExistentEntryForUser_ShouldThrowException() {
         // Arrange
         ObjectId nonExistentId = new ObjectId();
-        when(userService.getSpecificUserByUsername("testuser")).thenReturn(testUser);
+        when(userService.getUserIdByUsername("testuser")).thenReturn(testUserId);
+        when(journalEntryRepository.deleteByIdAndUserId(nonExistentId, testUserId)).thenReturn(0L);
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             journalEntryService.deleteSpecificEntryById(nonExistentId, "testuser");
         });
 
-        assertEquals("Journal entry not found in user's entries", exception.getMessage());
-        verify(journalEntryRepository, never()).deleteById(any());
-        verify(userService, never()).saveUser(any());
+        assertEquals("Error deleting journal entry: Journal entry not found in user's entries", exception.getMessage());
+        verify(userService, never()).incrementJournalCount(any(ObjectId.class), anyLong());
     }
 
     // Test deleting journal entry for non-existent user
     @Test
     void deleteSpecificEntryById_WithNonExistentUser_ShouldThrowException() {
         // Arrange
-        when(userService.getSpecificUserByUsername("nonexistent")).thenReturn(null);
+        when(userService.getUserIdByUsername("nonexistent")).thenReturn(null);
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             journalEntryService.deleteSpecificEntryById(testId, "nonexistent");
         });
 
-        assertEquals("User not found: nonexistent", exception.getMessage());
-        verify(journalEntryRepository, never()).deleteById(any());
-        verify(userService, never()).saveUser(any());
+        assertEquals("Error deleting journal entry: User not found: nonexistent", exception.getMessage());
+        verify(journalEntryRepository, never()).deleteByIdAndUserId(any(), any());
     }
-}
\ No newline at end of file
+}
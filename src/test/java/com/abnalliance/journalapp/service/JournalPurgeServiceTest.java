@@ -0,0 +1,178 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.entity.JournalEntry;
+import com.abnalliance.journalapp.entity.PurgeJob;
+import com.abnalliance.journalapp.entity.Users;
+import com.abnalliance.journalapp.repository.PurgeJobRepository;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JournalPurgeServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private PurgeJobRepository purgeJobRepository;
+
+    @InjectMocks
+    private JournalPurgeService journalPurgeService;
+
+    private PurgeJob testJob;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(journalPurgeService, "batchSize", 2);
+        ReflectionTestUtils.setField(journalPurgeService, "pause", Duration.ZERO);
+        ReflectionTestUtils.setField(journalPurgeService, "retryDelay", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(journalPurgeService, "maxRetryDelay", Duration.ofHours(1));
+
+        testJob = new PurgeJob();
+        testJob.setId(new ObjectId());
+        testJob.setUserId(new ObjectId());
+        testJob.setUserName("testuser");
+        testJob.setStatus(PurgeJob.PENDING);
+    }
+
+    @AfterEach
+    void tearDown() {
+        journalPurgeService.shutdown();
+    }
+
+    private JournalEntry entry() {
+        JournalEntry entry = new JournalEntry();
+        entry.setId(new ObjectId());
+        return entry;
+    }
+
+    // Test job deletes in bounded batches until nothing is left, then is marked done
+    @Test
+    void run_WithJournalsLeft_ShouldDeleteInBatchesAndMarkDone() {
+        // Arrange
+        when(purgeJobRepository.findById(testJob.getId())).thenReturn(Optional.of(testJob));
+        when(mongoTemplate.find(any(Query.class), eq(JournalEntry.class)))
+                .thenReturn(List.of(entry(), entry()))
+                .thenReturn(List.of(entry()))
+                .thenReturn(List.of());
+        when(mongoTemplate.remove(any(Query.class), eq(JournalEntry.class)))
+                .thenReturn(DeleteResult.acknowledged(2))
+                .thenReturn(DeleteResult.acknowledged(1));
+
+        // Act
+        journalPurgeService.run(testJob.getId());
+
+        // Assert
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq(JournalEntry.class));
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(4)).updateFirst(any(Query.class), updates.capture(), eq(PurgeJob.class));
+        Update last = updates.getAllValues().get(3);
+        assertTrue(last.toString().contains(PurgeJob.DONE), last.toString());
+    }
+
+    // Test finished jobs are not run again
+    @Test
+    void run_WithDoneJob_ShouldDoNothing() {
+        // Arrange
+        testJob.setStatus(PurgeJob.DONE);
+        when(purgeJobRepository.findById(testJob.getId())).thenReturn(Optional.of(testJob));
+
+        // Act
+        journalPurgeService.run(testJob.getId());
+
+        // Assert
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(JournalEntry.class));
+    }
+
+    // Test a failed job is recorded as failed with its attempt count instead of being dropped
+    @Test
+    void run_WhenDeleteFails_ShouldMarkFailedAndCountAttempt() {
+        // Arrange
+        when(purgeJobRepository.findById(testJob.getId())).thenReturn(Optional.of(testJob));
+        when(mongoTemplate.find(any(Query.class), eq(JournalEntry.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"));
+
+        // Act
+        journalPurgeService.run(testJob.getId());
+
+        // Assert
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), updates.capture(), eq(PurgeJob.class));
+        String last = updates.getAllValues().get(1).toString();
+        assertTrue(last.contains(PurgeJob.FAILED), last);
+        assertTrue(last.contains("attempts"), last);
+    }
+
+    // Test retry delay doubles per attempt and is capped
+    @Test
+    void retryDelay_ShouldBackOffExponentiallyUpToMax() {
+        // Act & Assert
+        assertEquals(Duration.ofMinutes(1), journalPurgeService.retryDelay(1));
+        assertEquals(Duration.ofMinutes(4), journalPurgeService.retryDelay(3));
+        assertEquals(Duration.ofHours(1), journalPurgeService.retryDelay(10));
+        assertEquals(Duration.ofHours(1), journalPurgeService.retryDelay(100));
+    }
+
+    // Test a job whose user was never deleted does not touch the journals
+    @Test
+    void run_WhenUserStillExists_ShouldCancelWithoutDeleting() {
+        // Arrange
+        when(purgeJobRepository.findById(testJob.getId())).thenReturn(Optional.of(testJob));
+        when(mongoTemplate.exists(any(Query.class), eq(Users.class))).thenReturn(true);
+
+        // Act
+        journalPurgeService.run(testJob.getId());
+
+        // Assert
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(JournalEntry.class));
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(PurgeJob.class));
+        assertTrue(update.getValue().toString().contains(PurgeJob.CANCELLED));
+    }
+
+    // Test failed jobs are resumed on startup along with unfinished ones
+    @Test
+    void resumeUnfinishedJobs_ShouldIncludeFailedJobs() {
+        // Act
+        journalPurgeService.resumeUnfinishedJobs();
+
+        // Assert
+        verify(purgeJobRepository).findByStatusIn(List.of(PurgeJob.PENDING, PurgeJob.RUNNING, PurgeJob.FAILED));
+    }
+
+    // Test create persists a pending job for the user without running it
+    @Test
+    void create_ShouldPersistPendingJob() {
+        // Act
+        PurgeJob job = journalPurgeService.create(testJob.getUserId(), "testuser");
+
+        // Assert
+        assertEquals(PurgeJob.PENDING, job.getStatus());
+        assertEquals(testJob.getUserId(), job.getUserId());
+        assertNotNull(job.getCreatedAt());
+        verify(purgeJobRepository, times(1)).save(job);
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(JournalEntry.class));
+    }
+}
@@ -0,0 +1,67 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.BatchItemResult;
+import com.abnalliance.journalapp.dto.JournalPage;
+import com.abnalliance.journalapp.entity.JournalEntry;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalQueriesTest {
+
+    private JournalEntry entry(String title) {
+        JournalEntry entry = new JournalEntry();
+        entry.setTitle(title);
+        return entry;
+    }
+
+    // Test batch rejects untitled entries and maps bulk errors back to request positions
+    @Test
+    void batchInsert_WithInvalidAndFailedEntries_ShouldReportByRequestIndex() {
+        // Arrange
+        ObjectId userId = new ObjectId();
+        JournalQueries.BatchInsert batch = new JournalQueries.BatchInsert(
+                Arrays.asList(entry("first"), entry(" "), entry("third")), userId);
+
+        // Act
+        // Second insert (request index 2) failed
+        batch.markFailed(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)));
+
+        // Assert
+        assertEquals(2, batch.toInsert.size());
+        assertEquals(userId, batch.toInsert.get(0).getUserId());
+        assertEquals(BatchItemResult.CREATED, batch.results.get(0).getStatus());
+        assertEquals(BatchItemResult.INVALID, batch.results.get(1).getStatus());
+        assertEquals(BatchItemResult.FAILED, batch.results.get(2).getStatus());
+        assertEquals(2, batch.results.get(2).getIndex());
+    }
+
+    // Test page keeps pageSize entries and hands out a cursor only when an extra entry was fetched
+    @Test
+    void page_WithExtraEntry_ShouldTrimAndSetNextCursor() {
+        // Arrange
+        JournalEntry first = entry("first");
+        first.setId(new ObjectId());
+        first.setDate(LocalDate.of(2024, 1, 2));
+        JournalEntry second = entry("second");
+        second.setId(new ObjectId());
+        second.setDate(LocalDate.of(2024, 1, 1));
+
+        // Act
+        JournalPage more = JournalQueries.page(List.of(first, second), 1);
+        JournalPage last = JournalQueries.page(List.of(first), 1);
+
+        // Assert
+        assertEquals(List.of(first), more.getEntries());
+        assertNotNull(more.getNextCursor());
+        assertEquals(List.of(first), last.getEntries());
+        assertNull(last.getNextCursor());
+    }
+}
@@ -0,0 +1,116 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.JournalSearchPage;
+import com.abnalliance.journalapp.dto.JournalSearchResult;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JournalSearchServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private JournalSearchService journalSearchService;
+
+    private ObjectId testUserId;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(journalSearchService, "snippetLength", 40);
+        testUserId = new ObjectId();
+    }
+
+    private JournalSearchResult result(String title, String content, float score) {
+        JournalSearchResult result = new JournalSearchResult();
+        result.setId(new ObjectId());
+        result.setTitle(title);
+        result.setContent(content);
+        result.setScore(score);
+        return result;
+    }
+
+    // Test search is scoped to the owner and returns ranked, highlighted hits
+    @Test
+    void search_WithMatches_ShouldReturnHighlightedHitsScopedToUser() {
+        // Arrange
+        when(userService.getUserIdByUsername("testuser")).thenReturn(testUserId);
+        when(mongoTemplate.find(any(Query.class), eq(JournalSearchResult.class), eq("journal_db")))
+                .thenReturn(List.of(result("Hiking trip", "We went hiking in the mountains", 2.5f),
+                        result("Groceries", "Bought milk before the hike", 1.1f)));
+
+        // Act
+        JournalSearchPage page = journalSearchService.search("testuser", "hiking", 0, 1);
+
+        // Assert
+        assertEquals(1, page.getHits().size());
+        assertTrue(page.isHasMore());
+        assertEquals("<em>Hiking</em> trip", page.getHits().get(0).getTitle());
+        assertTrue(page.getHits().get(0).getSnippet().contains("<em>hiking</em>"));
+        assertEquals(2.5f, page.getHits().get(0).getScore());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(JournalSearchResult.class), eq("journal_db"));
+        assertEquals(testUserId, query.getValue().getQueryObject().get("userId"));
+        assertEquals(2, query.getValue().getLimit());
+    }
+
+    // Test search for non-existent user
+    @Test
+    void search_WithNonExistentUser_ShouldThrowException() {
+        // Arrange
+        when(userService.getUserIdByUsername("nonexistent")).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> journalSearchService.search("nonexistent", "hiking", 0, 20));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(JournalSearchResult.class), any(String.class));
+    }
+
+    // Test query operators are not highlighted and markup in content is escaped
+    @Test
+    void highlight_ShouldEscapeHtmlAndIgnoreNegatedTerms() {
+        // Arrange
+        List<String> terms = JournalSearchService.terms("\"big day\" -work");
+
+        // Act
+        String highlighted = JournalSearchService.highlight("<b>Big</b> day at work", terms);
+
+        // Assert
+        assertEquals(List.of("big", "day"), terms);
+        assertEquals("&lt;b&gt;<em>Big</em>&lt;/b&gt; <em>day</em> at work", highlighted);
+    }
+
+    // Test snippet windows around the first match
+    @Test
+    void snippet_WithMatchInLongContent_ShouldReturnWindowAroundMatch() {
+        // Arrange
+        String content = "x".repeat(100) + " sunrise " + "y".repeat(100);
+
+        // Act
+        String snippet = JournalSearchService.snippet(content, List.of("sunrise"), 40);
+
+        // Assert
+        assertTrue(snippet.startsWith("…"));
+        assertTrue(snippet.endsWith("…"));
+        assertTrue(snippet.contains("<em>sunrise</em>"));
+    }
+}
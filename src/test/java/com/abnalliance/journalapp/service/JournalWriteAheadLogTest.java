@@ -0,0 +1,181 @@
+package com.abnalliance.journalapp.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalWriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    // Test appended records come back in order after a restart
+    @Test
+    void recover_AfterAppends_ShouldReturnRecordsInOrder() throws IOException {
+        // Arrange
+        try (JournalWriteAheadLog wal = new JournalWriteAheadLog(directory, 1024 * 1024)) {
+            wal.recover();
+            wal.append(bytes("first"));
+            wal.append(bytes("second"));
+        }
+
+        // Act
+        List<JournalWriteAheadLog.Record> records;
+        try (JournalWriteAheadLog wal = new JournalWriteAheadLog(directory, 1024 * 1024)) {
+            records = wal.recover();
+        }
+
+        // Assert
+        assertEquals(2, records.size());
+        assertEquals("first", new String(records.get(0).payload(), StandardCharsets.UTF_8));
+        assertEquals("second", new String(records.get(1).payload(), StandardCharsets.UTF_8));
+    }
+
+    // Test a torn record at the end of a segment is ignored, the records before it survive
+    @Test
+    void recover_WithTornTail_ShouldKeepCompleteRecords() throws IOException {
+        // Arrange
+        try (JournalWriteAheadLog wal = new JournalWriteAheadLog(directory, 1024 * 1024)) {
+            wal.recover();
+            wal.append(bytes("complete"));
+            wal.append(bytes("torn at crash time"));
+        }
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(segment) - 5);
+        }
+
+        // Act
+        List<JournalWriteAheadLog.Record> records;
+        try (JournalWriteAheadLog wal = new JournalWriteAheadLog(directory, 1024 * 1024)) {
+            records = wal.recover();
+        }
+
+        // Assert
+        assertEquals(1, records.size());
+        assertEquals("complete", new String(records.get(0).payload(), StandardCharsets.UTF_8));
+    }
+
+    // Test a rolled segment is deleted once all its records are released
+    @Test
+    void release_AllRecordsOfClosedSegment_ShouldDeleteSegment() throws IOException {
+        try (JournalWriteAheadLog wal = new JournalWriteAheadLog(directory, 64)) {
+            // Arrange: the second append does not fit and rolls to a new segment
+            wal.recover();
+            JournalWriteAheadLog.Position first = wal.append(new byte[40]);
+            JournalWriteAheadLog.Position second = wal.append(new byte[40]);
+            assertNotEquals(first.segment(), second.segment());
+            assertEquals(2, segments().size());
+
+            // Act
+            wal.release(List.of(first));
+
+            // Assert: only the active segment and its (empty) ack state are left
+            assertEquals(1, segments().size());
+            assertEquals(1, wal.pendingRecords());
+        }
+    }
+
+    // Test releasing the same record again (a retried release) does not count it twice
+    @Test
+    void release_SameRecordTwice_ShouldCountOnce() throws IOException {
+        try (JournalWriteAheadLog wal = new JournalWriteAheadLog(directory, 1024 * 1024)) {
+            // Arrange
+            wal.recover();
+            JournalWriteAheadLog.Position first = wal.append(bytes("first"));
+            wal.append(bytes("second"));
+
+            // Act
+            wal.release(List.of(first));
+            wal.release(List.of(first));
+
+            // Assert
+            assertEquals(1, wal.pendingRecords());
+            assertFalse(wal.isFailed());
+        }
+    }
+
+    // Test recovered records are released against their old segment
+    @Test
+    void release_RecoveredRecords_ShouldDeleteRecoveredSegment() throws IOException {
+        // Arrange
+        try (JournalWriteAheadLog wal = new JournalWriteAheadLog(directory, 1024 * 1024)) {
+            wal.recover();
+            wal.append(bytes("unflushed"));
+        }
+
+        try (JournalWriteAheadLog wal = new JournalWriteAheadLog(directory, 1024 * 1024)) {
+            List<JournalWriteAheadLog.Record> records = wal.recover();
+
+            // Act
+            wal.release(List.of(records.get(0).position()));
+
+            // Assert: only the new, empty active segment is left
+            assertEquals(1, segments().size());
+            assertEquals(0, Files.size(segments().get(0)));
+        }
+    }
+
+    // Test released records of the active segment are not replayed after a restart
+    @Test
+    void recover_AfterRelease_ShouldSkipReleasedRecords() throws IOException {
+        // Arrange
+        try (JournalWriteAheadLog wal = new JournalWriteAheadLog(directory, 1024 * 1024)) {
+            wal.recover();
+            JournalWriteAheadLog.Position flushed = wal.append(bytes("flushed"));
+            wal.append(bytes("unflushed"));
+            wal.release(List.of(flushed));
+        }
+
+        // Act
+        List<JournalWriteAheadLog.Record> records;
+        try (JournalWriteAheadLog wal = new JournalWriteAheadLog(directory, 1024 * 1024)) {
+            records = wal.recover();
+        }
+
+        // Assert
+        assertEquals(1, records.size());
+        assertEquals("unflushed", new String(records.get(0).payload(), StandardCharsets.UTF_8));
+    }
+
+    // Test a segment whose records were all released is deleted with its ack file on recovery
+    @Test
+    void recover_WithFullyReleasedSegment_ShouldDeleteIt() throws IOException {
+        // Arrange
+        try (JournalWriteAheadLog wal = new JournalWriteAheadLog(directory, 1024 * 1024)) {
+            wal.recover();
+            wal.release(List.of(wal.append(bytes("flushed"))));
+        }
+
+        // Act
+        List<JournalWriteAheadLog.Record> records;
+        try (JournalWriteAheadLog wal = new JournalWriteAheadLog(directory, 1024 * 1024)) {
+            records = wal.recover();
+        }
+
+        // Assert: only the new, empty active segment is left
+        assertTrue(records.isEmpty());
+        assertEquals(1, segments().size());
+        assertEquals(0, Files.size(segments().get(0)));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".wal")).sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
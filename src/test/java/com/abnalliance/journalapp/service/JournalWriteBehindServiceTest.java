@@ -0,0 +1,198 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.entity.JournalEntry;
+import com.abnalliance.journalapp.entity.Users;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class JournalWriteBehindServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulkOperations;
+    private JournalWriteBehindService journalWriteBehindService;
+    private Users testUser;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulkOperations = mock(BulkOperations.class);
+        MongoConverter converter = mock(MongoConverter.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        doAnswer(invocation -> {
+            JournalEntry entry = invocation.getArgument(0);
+            Document sink = invocation.getArgument(1);
+            sink.put("_id", entry.getId());
+            sink.put("title", entry.getTitle());
+            return null;
+        }).when(converter).write(any(), any());
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), any(Class.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(bulkOperations.updateOne(any(Query.class), any(Update.class))).thenReturn(bulkOperations);
+
+        testUser = new Users();
+        testUser.setId(new ObjectId());
+        testUser.setUserName("testuser");
+        when(mongoTemplate.find(any(Query.class), eq(Users.class))).thenReturn(List.of(testUser));
+
+        journalWriteBehindService = newService();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journalWriteBehindService.shutdown();
+    }
+
+    // Test an appended entry is acknowledged with server-side fields and flushed with its owner linked
+    @Test
+    void append_WithValidUser_ShouldFlushEntryAndLinkOwner() throws Exception {
+        // Arrange
+        journalWriteBehindService.init();
+        JournalEntry entry = new JournalEntry();
+        entry.setTitle("Logged");
+
+        // Act
+        Optional<JournalEntry> result = journalWriteBehindService.append(entry, "testuser");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertNotNull(result.get().getId());
+        assertEquals(1, result.get().getVersion());
+        ArgumentCaptor<List<Document>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations, timeout(2000)).insert(inserted.capture());
+        Document document = inserted.getValue().get(0);
+        assertEquals(testUser.getId(), document.get("userId"));
+        assertFalse(document.containsKey(JournalWriteBehindService.OWNER_FIELD));
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, timeout(2000)).updateOne(any(Query.class), update.capture());
+        assertEquals(1L, ((Document) update.getValue().getUpdateObject().get("$inc")).get("journalCount"));
+    }
+
+    // Test entries left in the log by a previous run are flushed on startup
+    @Test
+    void init_WithUnflushedLog_ShouldReplayEntries() throws Exception {
+        // Arrange
+        ObjectId id = new ObjectId();
+        try (JournalWriteAheadLog wal = new JournalWriteAheadLog(directory, 1024 * 1024)) {
+            wal.recover();
+            wal.append(JournalWriteBehindService.encode(new Document("_id", id).append("title", "Unflushed")
+                    .append(JournalWriteBehindService.OWNER_FIELD, "testuser")));
+        }
+
+        // Act
+        journalWriteBehindService.init();
+
+        // Assert
+        ArgumentCaptor<List<Document>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations, timeout(2000)).insert(inserted.capture());
+        assertEquals(id, inserted.getValue().get(0).get("_id"));
+    }
+
+    // Test an entry already inserted by an earlier, unacknowledged attempt is still linked to its owner
+    @Test
+    void flush_WithDuplicateKey_ShouldStillLinkOwner() throws Exception {
+        // Arrange
+        BulkOperationException duplicate = mock(BulkOperationException.class);
+        when(duplicate.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0)));
+        doThrow(duplicate).doReturn(null).when(bulkOperations).execute();
+        journalWriteBehindService.init();
+
+        // Act
+        journalWriteBehindService.append(new JournalEntry(), "testuser");
+
+        // Assert
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, timeout(2000)).updateOne(any(Query.class), update.capture());
+        assertEquals(1L, ((Document) update.getValue().getUpdateObject().get("$inc")).get("journalCount"));
+    }
+
+    // Test linking that failed before reaching Mongo is retried without inserting again
+    @Test
+    void flush_WithLinkingNotSent_ShouldRetryLinkingOnly() throws Exception {
+        // Arrange
+        DataAccessResourceFailureException unreachable = new DataAccessResourceFailureException("no server",
+                new MongoTimeoutException("Timed out while waiting for a server"));
+        doReturn(null).doThrow(unreachable).doReturn(null).when(bulkOperations).execute();
+        journalWriteBehindService.init();
+
+        // Act
+        journalWriteBehindService.append(new JournalEntry(), "testuser");
+
+        // Assert
+        verify(bulkOperations, timeout(2000).times(2)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(1)).insert(anyList());
+    }
+
+    // Test linking that may have been applied is not repeated, so the owner is never counted twice
+    @Test
+    void flush_WithLinkingOutcomeUnknown_ShouldNotRetryLinking() throws Exception {
+        // Arrange
+        DataAccessResourceFailureException readTimeout = new DataAccessResourceFailureException("read timed out");
+        doReturn(null).doThrow(readTimeout).doReturn(null).when(bulkOperations).execute();
+        journalWriteBehindService.init();
+
+        // Act
+        journalWriteBehindService.append(new JournalEntry(), "testuser");
+
+        // Assert
+        verify(bulkOperations, after(300).times(1)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(1)).insert(anyList());
+    }
+
+    // Test a full backlog makes the caller write synchronously
+    @Test
+    void append_WithFullBacklog_ShouldReturnEmpty() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(journalWriteBehindService, "maxBacklog", 0);
+        journalWriteBehindService.init();
+
+        // Act & Assert
+        assertFalse(journalWriteBehindService.append(new JournalEntry(), "testuser").isPresent());
+        verifyNoInteractions(bulkOperations);
+    }
+
+    private JournalWriteBehindService newService() {
+        JournalWriteBehindService service = new JournalWriteBehindService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "journalCacheService", mock(JournalCacheService.class));
+        ReflectionTestUtils.setField(service, "invalidationBus", mock(InvalidationBus.class));
+        ReflectionTestUtils.setField(service, "directory", directory);
+        ReflectionTestUtils.setField(service, "segmentSize", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        ReflectionTestUtils.setField(service, "flushInterval", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(service, "maxBacklog", 1000);
+        return service;
+    }
+}
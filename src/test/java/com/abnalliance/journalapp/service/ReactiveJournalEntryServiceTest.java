@@ -0,0 +1,182 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.JournalPage;
+import com.abnalliance.journalapp.entity.JournalEntry;
+import com.abnalliance.journalapp.entity.Users;
+import com.abnalliance.journalapp.repository.ReactiveJournalEntryRepository;
+import com.abnalliance.journalapp.repository.ReactiveUserRepository;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveJournalEntryServiceTest {
+
+    @Mock
+    private ReactiveJournalEntryRepository reactiveJournalEntryRepository;
+
+    @Mock
+    private ReactiveUserRepository reactiveUserRepository;
+
+    @Mock
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @InjectMocks
+    private ReactiveJournalEntryService reactiveJournalEntryService;
+
+    private ObjectId testUserId;
+    private Users testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUserId = new ObjectId();
+        testUser = new Users();
+        testUser.setId(testUserId);
+    }
+
+    // Test saving journal entry links it to the owner resolved by the counter update
+    @Test
+    void saveJournalEntry_WithValidUser_ShouldSaveEntryWithOwnerId() {
+        // Arrange
+        JournalEntry newEntry = new JournalEntry();
+        newEntry.setTitle("New Title");
+        when(reactiveMongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Users.class)))
+                .thenReturn(Mono.just(testUser));
+        when(reactiveJournalEntryRepository.save(any(JournalEntry.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(reactiveMongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Users.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        // Act
+        JournalEntry saved = reactiveJournalEntryService.saveJournalEntry(newEntry, "testuser").block();
+
+        // Assert
+        assertNotNull(saved);
+        // Journal-set version bumped again once the entry is written
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(reactiveMongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Users.class));
+        assertEquals(1, ((Document) update.getValue().getUpdateObject().get("$inc")).get("journalsVersion"));
+        assertEquals(testUserId, saved.getUserId());
+        assertEquals(LocalDate.now(), saved.getDate());
+        assertNotNull(saved.getCreatedAt());
+    }
+
+    // Test saving journal entry for unknown user fails without writing the entry
+    @Test
+    void saveJournalEntry_WithUnknownUser_ShouldFail() {
+        // Arrange
+        when(reactiveMongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Users.class)))
+                .thenReturn(Mono.empty());
+
+        // Act
+        Mono<JournalEntry> result = reactiveJournalEntryService.saveJournalEntry(new JournalEntry(), "ghost");
+
+        // Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, result::block);
+        assertTrue(exception.getMessage().contains("User not found"));
+        verify(reactiveJournalEntryRepository, never()).save(any());
+    }
+
+    // Test a failed insert compensates the journal counter
+    @Test
+    void saveJournalEntry_WhenInsertFails_ShouldDecrementCounter() {
+        // Arrange
+        when(reactiveMongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Users.class)))
+                .thenReturn(Mono.just(testUser));
+        when(reactiveJournalEntryRepository.save(any(JournalEntry.class))).thenReturn(Mono.error(new RuntimeException("write failed")));
+        when(reactiveMongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Users.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        // Act
+        Mono<JournalEntry> result = reactiveJournalEntryService.saveJournalEntry(new JournalEntry(), "testuser");
+
+        // Assert
+        assertThrows(RuntimeException.class, result::block);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(reactiveMongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Users.class));
+        assertEquals(-1L, ((Document) update.getValue().getUpdateObject().get("$inc")).get("journalCount"));
+    }
+
+    // Test fetching an entry for an unknown user completes empty without querying journals
+    @Test
+    void getSpecificEntryOfUser_WithUnknownUser_ShouldBeEmpty() {
+        // Arrange
+        when(reactiveUserRepository.findIdByUserName("ghost")).thenReturn(Mono.empty());
+
+        // Act
+        JournalEntry result = reactiveJournalEntryService.getSpecificEntryOfUser(new ObjectId(), "ghost").block();
+
+        // Assert
+        assertNull(result);
+        verify(reactiveJournalEntryRepository, never()).findByIdAndUserId(any(), any());
+    }
+
+    // Test deleting an entry the user does not own reports false and leaves the counter alone
+    @Test
+    void deleteSpecificEntryById_WhenNotOwned_ShouldReturnFalse() {
+        // Arrange
+        ObjectId id = new ObjectId();
+        when(reactiveUserRepository.findIdByUserName("testuser")).thenReturn(Mono.just(testUser));
+        when(reactiveJournalEntryRepository.deleteByIdAndUserId(id, testUserId)).thenReturn(Mono.just(0L));
+
+        // Act
+        Boolean deleted = reactiveJournalEntryService.deleteSpecificEntryById(id, "testuser").block();
+
+        // Assert
+        assertEquals(Boolean.FALSE, deleted);
+        verify(reactiveMongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Users.class));
+    }
+
+    // Test a full page returns the requested size and a cursor for the next page
+    @Test
+    void getJournalEntriesPage_WithMoreEntries_ShouldReturnNextCursor() {
+        // Arrange
+        when(reactiveUserRepository.findIdByUserName("testuser")).thenReturn(Mono.just(testUser));
+        JournalEntry first = entry(LocalDate.of(2024, 5, 3));
+        JournalEntry second = entry(LocalDate.of(2024, 5, 2));
+        JournalEntry third = entry(LocalDate.of(2024, 5, 1));
+        when(reactiveMongoTemplate.find(any(Query.class), eq(JournalEntry.class))).thenReturn(Flux.just(first, second, third));
+
+        // Act
+        JournalPage page = reactiveJournalEntryService.getJournalEntriesPage("testuser", null, 2, null, null).block();
+
+        // Assert
+        assertNotNull(page);
+        assertEquals(2, page.getEntries().size());
+        assertNotNull(page.getNextCursor());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(reactiveMongoTemplate).find(query.capture(), eq(JournalEntry.class));
+        assertEquals(3, query.getValue().getLimit());
+    }
+
+    private JournalEntry entry(LocalDate date) {
+        JournalEntry entry = new JournalEntry();
+        entry.setId(new ObjectId());
+        entry.setTitle("Title");
+        entry.setDate(date);
+        entry.setUserId(testUserId);
+        return entry;
+    }
+}
@@ -0,0 +1,138 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.SlowOperation;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowQueryServiceTest {
+
+    private SlowQueryService slowQueryService;
+
+    @BeforeEach
+    void setUp() {
+        slowQueryService = new SlowQueryService();
+        ReflectionTestUtils.setField(slowQueryService, "threshold", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(slowQueryService, "capacity", 2);
+        ReflectionTestUtils.setField(slowQueryService, "explainEnabled", false);
+        ReflectionTestUtils.setField(slowQueryService, "explainInterval", Duration.ofMinutes(1));
+        slowQueryService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowQueryService.shutdown();
+    }
+
+    // Test shape keeps field names, operators and sort but hides values; driver fields are never copied
+    @Test
+    void shape_FindCommand_ShouldReplaceValuesAndKeepSort() {
+        // Arrange
+        BsonDocument command = BsonDocument.parse("{find: 'journal_db', filter: {userId: 'abc', date: {$gte: '2024-01-01'}},"
+                + " sort: {date: -1, _id: -1}, limit: 21, lsid: {id: 1}, $db: 'journaldb'}");
+
+        // Act
+        BsonDocument queryPart = SlowQueryService.copyQueryPart("find", command);
+        BsonDocument shape = SlowQueryService.shape(queryPart);
+
+        // Assert
+        assertFalse(queryPart.containsKey("lsid"));
+        assertFalse(queryPart.containsKey("$db"));
+        assertEquals(BsonDocument.parse("{filter: {userId: '?', date: {$gte: '?'}}, sort: {date: -1, _id: -1}}"), shape);
+        assertEquals(BsonDocument.parse("{find: 'journal_db', filter: {userId: 'abc', date: {$gte: '2024-01-01'}},"
+                + " sort: {date: -1, _id: -1}}"), SlowQueryService.explainCommand("find", "journal_db", queryPart));
+    }
+
+    // Test writes keep only the query of their first statement and are explained as a find of it
+    @Test
+    void copyQueryPart_UpdateCommand_ShouldKeepFirstQueryOnly() {
+        // Arrange
+        BsonDocument command = BsonDocument.parse("{update: 'users', updates: [{q: {userName: 'a'}, u: {$inc: {journalCount: 1}}},"
+                + " {q: {userName: 'b'}, u: {$inc: {journalCount: 1}}}], ordered: true}");
+
+        // Act
+        BsonDocument queryPart = SlowQueryService.copyQueryPart("update", command);
+
+        // Assert
+        assertEquals(BsonDocument.parse("{q: {userName: 'a'}}"), queryPart);
+        assertEquals(BsonDocument.parse("{find: 'users', filter: {userName: 'a'}}"),
+                SlowQueryService.explainCommand("update", "users", queryPart));
+    }
+
+    // Test commands without a query part are not copied
+    @Test
+    void copyQueryPart_InsertCommand_ShouldReturnNull() {
+        // Act & Assert
+        assertNull(SlowQueryService.copyQueryPart("insert", BsonDocument.parse("{insert: 'journal_db', documents: []}")));
+    }
+
+    // Test plan analysis flags collection scans and collects index names
+    @Test
+    void analyze_ShouldDetectCollectionScanAndIndexes() {
+        // Arrange
+        Document indexPlan = Document.parse("{stage: 'FETCH', inputStage: {stage: 'IXSCAN', indexName: 'owner_date_id'}}");
+        Document scanPlan = Document.parse("{stage: 'SORT', inputStage: {stage: 'COLLSCAN'}}");
+        Set<String> indexes = new LinkedHashSet<>();
+
+        // Act & Assert
+        assertFalse(SlowQueryService.analyze(indexPlan, indexes));
+        assertEquals(Set.of("owner_date_id"), indexes);
+        assertTrue(SlowQueryService.analyze(scanPlan, new LinkedHashSet<>()));
+    }
+
+    // Test buffer keeps only the newest entries, newest first
+    @Test
+    void record_BeyondCapacity_ShouldDropOldest() {
+        // Act
+        slowQueryService.record("journaldb", "journal_db", "getMore", null, 150);
+        slowQueryService.record("journaldb", "journal_db", "getMore", null, 200);
+        slowQueryService.record("journaldb", "journal_db", "getMore", null, 250);
+
+        // Assert
+        List<SlowOperation> recent = slowQueryService.getRecent();
+        assertEquals(2, recent.size());
+        assertEquals(250, recent.get(0).getDurationMs());
+        assertEquals(200, recent.get(1).getDurationMs());
+        assertEquals(SlowOperation.UNSUPPORTED, recent.get(0).getExplainStatus());
+    }
+
+    // Test explainable command is recorded with its shape, explain skipped when disabled
+    @Test
+    void record_ExplainDisabled_ShouldKeepShapeAndSkipExplain() {
+        // Arrange
+        BsonDocument command = BsonDocument.parse("{find: 'users', filter: {userName: 'testuser'}, $db: 'journaldb'}");
+
+        // Act
+        slowQueryService.record("journaldb", "users", "find", SlowQueryService.copyQueryPart("find", command), 120);
+
+        // Assert
+        SlowOperation operation = slowQueryService.getRecent().get(0);
+        assertEquals("users", operation.getCollection());
+        assertEquals(SlowOperation.SKIPPED, operation.getExplainStatus());
+        assertTrue(operation.getShape().contains("\"userName\": \"?\""));
+        assertFalse(operation.getShape().contains("testuser"));
+    }
+
+    // Test clear empties the buffer
+    @Test
+    void clear_ShouldRemoveAllEntries() {
+        // Arrange
+        slowQueryService.record("journaldb", "journal_db", "getMore", null, 150);
+
+        // Act
+        slowQueryService.clear();
+
+        // Assert
+        assertTrue(slowQueryService.getRecent().isEmpty());
+    }
+}
@@ -0,0 +1,174 @@
+package com.abnalliance.journalapp.service;
+
+import com.abnalliance.journalapp.dto.TokenResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenServiceTest {
+
+    @Mock
+    private UserDetailServiceImp userDetailService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private TokenService tokenService;
+
+    private UserDetails testUser;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenService, "secret", "");
+        ReflectionTestUtils.setField(tokenService, "accessTtl", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(tokenService, "refreshTtl", Duration.ofDays(7));
+        tokenService.init();
+
+        testUser = User.builder()
+                .username("testuser")
+                .password("encodedpassword")
+                .roles("USER")
+                .build();
+    }
+
+    // Test login with valid credentials issues tokens usable without further lookups
+    @Test
+    void login_WithValidCredentials_ShouldIssueAccessTokenCarryingRoles() {
+        // Arrange
+        when(userDetailService.loadUserByUsername("testuser")).thenReturn(testUser);
+        when(passwordEncoder.matches("secret", "encodedpassword")).thenReturn(true);
+
+        // Act
+        TokenResponse tokens = tokenService.login("testuser", "secret");
+        Authentication authentication = tokenService.authenticate(tokens.getAccessToken());
+
+        // Assert
+        assertEquals("Bearer", tokens.getTokenType());
+        assertEquals(900, tokens.getExpiresIn());
+        assertEquals("testuser", authentication.getName());
+        assertTrue(authentication.isAuthenticated());
+        assertTrue(authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_USER")));
+        verify(userDetailService, times(1)).loadUserByUsername("testuser");
+    }
+
+    // Test login rehashes an outdated hash and issues tokens bound to the new one
+    @Test
+    void login_WithOutdatedHash_ShouldUpgradeHash() {
+        // Arrange
+        UserDetails upgraded = User.withUserDetails(testUser).password("{bcrypt}rehashed").build();
+        when(userDetailService.loadUserByUsername("testuser")).thenReturn(testUser);
+        when(passwordEncoder.matches("secret", "encodedpassword")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("encodedpassword")).thenReturn(true);
+        when(passwordEncoder.encode("secret")).thenReturn("{bcrypt}rehashed");
+        when(userDetailService.updatePassword(testUser, "{bcrypt}rehashed")).thenReturn(upgraded);
+
+        // Act
+        TokenResponse tokens = tokenService.login("testuser", "secret");
+
+        // Assert
+        verify(userDetailService, times(1)).updatePassword(testUser, "{bcrypt}rehashed");
+        when(userDetailService.loadUserByUsername("testuser")).thenReturn(upgraded);
+        assertNotNull(tokenService.refresh(tokens.getRefreshToken()));
+    }
+
+    // Test login with wrong password
+    @Test
+    void login_WithWrongPassword_ShouldThrowBadCredentials() {
+        // Arrange
+        when(userDetailService.loadUserByUsername("testuser")).thenReturn(testUser);
+        when(passwordEncoder.matches("wrong", "encodedpassword")).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> tokenService.login("testuser", "wrong"));
+    }
+
+    // Test login with unknown user
+    @Test
+    void login_WithUnknownUser_ShouldThrowBadCredentials() {
+        // Arrange
+        when(userDetailService.loadUserByUsername("nonexistent")).thenThrow(new UsernameNotFoundException("User not found: nonexistent"));
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> tokenService.login("nonexistent", "secret"));
+    }
+
+    // Test tampered and wrong-type tokens are rejected
+    @Test
+    void authenticate_WithTamperedOrRefreshToken_ShouldThrowBadCredentials() {
+        // Arrange
+        when(userDetailService.loadUserByUsername("testuser")).thenReturn(testUser);
+        when(passwordEncoder.matches("secret", "encodedpassword")).thenReturn(true);
+        TokenResponse tokens = tokenService.login("testuser", "secret");
+        String tampered = tokens.getAccessToken().substring(0, tokens.getAccessToken().length() - 2) + "xx";
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> tokenService.authenticate(tampered));
+        assertThrows(BadCredentialsException.class, () -> tokenService.authenticate(tokens.getRefreshToken()));
+        assertThrows(BadCredentialsException.class, () -> tokenService.authenticate("not-a-token"));
+    }
+
+    // Test expired access token
+    @Test
+    void authenticate_WithExpiredToken_ShouldThrowBadCredentials() {
+        // Arrange
+        ReflectionTestUtils.setField(tokenService, "accessTtl", Duration.ofSeconds(-1));
+        when(userDetailService.loadUserByUsername("testuser")).thenReturn(testUser);
+        when(passwordEncoder.matches("secret", "encodedpassword")).thenReturn(true);
+        TokenResponse tokens = tokenService.login("testuser", "secret");
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> tokenService.authenticate(tokens.getAccessToken()));
+    }
+
+    // Test refresh is revoked by a password change
+    @Test
+    void refresh_AfterPasswordChange_ShouldThrowBadCredentials() {
+        // Arrange
+        when(userDetailService.loadUserByUsername("testuser")).thenReturn(testUser);
+        when(passwordEncoder.matches("secret", "encodedpassword")).thenReturn(true);
+        TokenResponse tokens = tokenService.login("testuser", "secret");
+        UserDetails changedPassword = User.withUserDetails(testUser).password("newencodedpassword").build();
+        when(userDetailService.loadUserByUsername("testuser")).thenReturn(changedPassword);
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> tokenService.refresh(tokens.getRefreshToken()));
+    }
+
+    // Test refresh with unchanged user issues a new pair
+    @Test
+    void refresh_WithValidToken_ShouldIssueNewTokens() {
+        // Arrange
+        when(userDetailService.loadUserByUsername("testuser")).thenReturn(testUser);
+        when(passwordEncoder.matches("secret", "encodedpassword")).thenReturn(true);
+        TokenResponse tokens = tokenService.login("testuser", "secret");
+
+        // Act
+        TokenResponse refreshed = tokenService.refresh(tokens.getRefreshToken());
+
+        // Assert
+        assertEquals("testuser", tokenService.authenticate(refreshed.getAccessToken()).getName());
+    }
+}
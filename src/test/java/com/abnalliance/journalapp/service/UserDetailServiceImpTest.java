@@ -12,7 +12,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,6 +26,9 @@ class UserDetailServiceImpTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private InvalidationBus invalidationBus;
+
     @InjectMocks
     private UserDetailServiceImp userDetailService;
 
@@ -31,17 +36,55 @@ class UserDetailServiceImpTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(userDetailService, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(userDetailService, "cacheTtl", Duration.ofMinutes(10));
+        userDetailService.init();
+
         testUser = new Users();
         testUser.setUserName("testuser");
         testUser.setPassword("encodedpassword");
         testUser.setRoles(Arrays.asList("USER"));
     }
 
+    // Test a rehash replaces the verified hash, drops the cached principal and notifies other replicas
+    @Test
+    void updatePassword_WithUnchangedHash_ShouldStoreNewHash() {
+        // Arrange
+        when(userRepository.findPrincipalByUserName("testuser")).thenReturn(testUser);
+        UserDetails user = userDetailService.loadUserByUsername("testuser");
+        when(userRepository.updatePasswordByUserNameAndPassword("testuser", "encodedpassword", "{bcrypt}rehashed")).thenReturn(1L);
+
+        // Act
+        UserDetails updated = userDetailService.updatePassword(user, "{bcrypt}rehashed");
+
+        // Assert
+        assertEquals("{bcrypt}rehashed", updated.getPassword());
+        verify(invalidationBus, times(1)).publish("testuser", InvalidationBus.CREDENTIALS);
+        userDetailService.loadUserByUsername("testuser");
+        verify(userRepository, times(2)).findPrincipalByUserName("testuser");
+    }
+
+    // Test a rehash is dropped when the password changed in the meantime
+    @Test
+    void updatePassword_WithChangedHash_ShouldKeepUser() {
+        // Arrange
+        when(userRepository.findPrincipalByUserName("testuser")).thenReturn(testUser);
+        UserDetails user = userDetailService.loadUserByUsername("testuser");
+        when(userRepository.updatePasswordByUserNameAndPassword("testuser", "encodedpassword", "{bcrypt}rehashed")).thenReturn(0L);
+
+        // Act
+        UserDetails updated = userDetailService.updatePassword(user, "{bcrypt}rehashed");
+
+        // Assert
+        assertSame(user, updated);
+        verifyNoInteractions(invalidationBus);
+    }
+
     // Test loading user by valid username
     @Test
     void loadUserByUsername_WithValidUsername_ShouldReturnUserDetails() {
         // Arrange
-        when(userRepository.findByUserName("testuser")).thenReturn(testUser);
+        when(userRepository.findPrincipalByUserName("testuser")).thenReturn(testUser);
 
         // Act
         UserDetails userDetails = userDetailService.loadUserByUsername("testuser");
@@ -59,7 +102,7 @@ class UserDetailServiceImpTest {
     void loadUserByUsername_WithAdminUser_ShouldReturnUserDetailsWithAdminRole() {
         // Arrange
         testUser.setRoles(Arrays.asList("USER", "ADMIN"));
-        when(userRepository.findByUserName("admin")).thenReturn(testUser);
+        when(userRepository.findPrincipalByUserName("admin")).thenReturn(testUser);
 
         // Act
         UserDetails userDetails = userDetailService.loadUserByUsername("admin");
@@ -77,7 +120,7 @@ class UserDetailServiceImpTest {
     @Test
     void loadUserByUsername_WithNonExistentUsername_ShouldThrowException() {
         // Arrange
-        when(userRepository.findByUserName("nonexistent")).thenReturn(null);
+        when(userRepository.findPrincipalByUserName("nonexistent")).thenReturn(null);
 
         // Act & Assert
         UsernameNotFoundException exception = assertThrows(UsernameNotFoundException.class, () -> {
@@ -92,7 +135,7 @@ class UserDetailServiceImpTest {
     @NullAndEmptySource
     void loadUserByUsername_WithInvalidUsername_ShouldThrowException(String username) {
         // Arrange
-        when(userRepository.findByUserName(username)).thenReturn(null);
+        when(userRepository.findPrincipalByUserName(username)).thenReturn(null);
 
         // Act & Assert
         UsernameNotFoundException exception = assertThrows(UsernameNotFoundException.class, () -> {
@@ -107,7 +150,7 @@ class UserDetailServiceImpTest {
     void loadUserByUsername_WithUserHavingNullRoles_ShouldReturnUserWithoutAuthorities() {
         // Arrange
         testUser.setRoles(null);
-        when(userRepository.findByUserName("testuser")).thenReturn(testUser);
+        when(userRepository.findPrincipalByUserName("testuser")).thenReturn(testUser);
 
         // Act
         UserDetails userDetails = userDetailService.loadUserByUsername("testuser");
@@ -123,7 +166,7 @@ class UserDetailServiceImpTest {
     void loadUserByUsername_WithUserHavingEmptyRoles_ShouldReturnUserWithoutAuthorities() {
         // Arrange
         testUser.setRoles(Arrays.asList());
-        when(userRepository.findByUserName("testuser")).thenReturn(testUser);
+        when(userRepository.findPrincipalByUserName("testuser")).thenReturn(testUser);
 
         // Act
         UserDetails userDetails = userDetailService.loadUserByUsername("testuser");
@@ -133,4 +176,35 @@ class UserDetailServiceImpTest {
         assertEquals("testuser", userDetails.getUsername());
         assertTrue(userDetails.getAuthorities().isEmpty());
     }
-}
\ No newline at end of file
+
+    // Test repeated loads are served from the principal cache
+    @Test
+    void loadUserByUsername_CalledTwice_ShouldQueryRepositoryOnce() {
+        // Arrange
+        when(userRepository.findPrincipalByUserName("testuser")).thenReturn(testUser);
+
+        // Act
+        UserDetails first = userDetailService.loadUserByUsername("testuser");
+        UserDetails second = userDetailService.loadUserByUsername("testuser");
+
+        // Assert
+        assertNotSame(first, second);
+        assertEquals("encodedpassword", second.getPassword());
+        verify(userRepository, times(1)).findPrincipalByUserName("testuser");
+    }
+
+    // Test invalidation forces a fresh lookup
+    @Test
+    void loadUserByUsername_AfterInvalidate_ShouldQueryRepositoryAgain() {
+        // Arrange
+        when(userRepository.findPrincipalByUserName("testuser")).thenReturn(testUser);
+        userDetailService.loadUserByUsername("testuser");
+
+        // Act
+        userDetailService.invalidate("testuser");
+        userDetailService.loadUserByUsername("testuser");
+
+        // Assert
+        verify(userRepository, times(2)).findPrincipalByUserName("testuser");
+    }
+}
@@ -1,25 +1,39 @@
 package com.abnalliance.journalapp.service;
 
+import com.abnalliance.journalapp.dto.UserPage;
+import com.abnalliance.journalapp.entity.PurgeJob;
 import com.abnalliance.journalapp.entity.Users;
 import com.abnalliance.journalapp.repository.UserRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +42,24 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CredentialCacheService credentialCacheService;
+
+    @Mock
+    private UserDetailServiceImp userDetailService;
+
+    @Mock
+    private JournalPurgeService journalPurgeService;
+
+    @Mock
+    private JournalCacheService journalCacheService;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
     @InjectMocks
     private UserService userService;
 
@@ -37,6 +69,7 @@ class UserServiceTest {
     @BeforeEach
     void setUp() {
         passwordEncoder = new BCryptPasswordEncoder();
+        ReflectionTestUtils.setField(userService, "passwordEncoder", passwordEncoder);
 
         testUser = new Users();
         testUser.setUserName("testuser");
@@ -58,6 +91,34 @@ class UserServiceTest {
         assertNotEquals("plainpassword", testUser.getPassword());
         assertTrue(passwordEncoder.matches("plainpassword", testUser.getPassword()));
         assertEquals(Arrays.asList("USER"), testUser.getRoles());
+        verify(credentialCacheService, times(1)).invalidateUser("testuser");
+    }
+
+    // Test renaming existing user invalidates cached credentials of both names
+    @Test
+    void saveOrUpdateUser_WithRenamedUser_ShouldInvalidateOldAndNewName() {
+        // Arrange
+        ObjectId userId = new ObjectId();
+        Users stored = new Users();
+        stored.setId(userId);
+        stored.setUserName("oldname");
+        testUser.setId(userId);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(stored));
+
+        // Act
+        userService.saveOrUpdateUser(testUser);
+
+        // Assert: credentials only, the counters maintained by $inc are never written back
+        verify(userRepository, never()).save(any(Users.class));
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Users.class));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(Set.of("userName", "password"), set.keySet());
+        assertTrue(passwordEncoder.matches("plainpassword", (String) set.get("password")));
+        verify(credentialCacheService, times(1)).invalidateUser("testuser");
+        verify(credentialCacheService, times(1)).invalidateUser("oldname");
+        verify(userDetailService, times(1)).invalidate("testuser");
+        verify(userDetailService, times(1)).invalidate("oldname");
     }
 
     // Test saving existing user without password re-encoding
@@ -108,6 +169,38 @@ class UserServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    // Test admin listing page is projected, filtered and keyset-paginated
+    @Test
+    void getUsersPage_WithMoreUsers_ShouldReturnSummariesAndNextCursor() {
+        // Arrange
+        testUser.setId(new ObjectId());
+        Users user2 = new Users();
+        user2.setId(new ObjectId());
+        user2.setUserName("testuser2");
+        when(mongoTemplate.find(any(Query.class), eq(Users.class))).thenReturn(Arrays.asList(testUser, user2));
+
+        // Act
+        UserPage page = userService.getUsersPage("USER", "test.", "alice", 1);
+
+        // Assert
+        assertEquals(1, page.getUsers().size());
+        assertEquals("testuser", page.getUsers().get(0).getUserName());
+        assertEquals("testuser", page.getNextCursor());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Users.class));
+        assertEquals("USER", query.getValue().getQueryObject().get("roles"));
+        assertTrue(query.getValue().getQueryObject().containsKey("userName"));
+        assertFalse(query.getValue().getFieldsObject().containsKey("password"));
+        verify(userRepository, never()).findAll();
+    }
+
+    // Test prefix escaping keeps the regex a plain anchored prefix
+    @Test
+    void escapeRegex_ShouldEscapeMetacharacters() {
+        assertEquals("john\\.doe\\+1", UserService.escapeRegex("john.doe+1"));
+        assertEquals("plain", UserService.escapeRegex("plain"));
+    }
+
     // Test getting specific user by username
     @Test
     void getSpecificUserByUsername_WithValidUsername_ShouldReturnUser() {
@@ -150,31 +243,129 @@ class UserServiceTest {
         assertNull(result);
     }
 
-    // Test deleting existing user
+    // Test resolving only the user's id
     @Test
-    void deleteSpecificUserByUsername_WithValidUsername_ShouldDeleteUser() {
+    void getUserIdByUsername_WithValidUsername_ShouldReturnId() {
         // Arrange
-        doNothing().when(userRepository).deleteByUserName("testuser");
+        ObjectId userId = new ObjectId();
+        testUser.setId(userId);
+        when(userRepository.findIdByUserName("testuser")).thenReturn(testUser);
+
+        // Act & Assert
+        assertEquals(userId, userService.getUserIdByUsername("testuser"));
+        verify(userRepository, never()).findByUserName(any());
+    }
+
+    // Test resolving id of non-existent user
+    @Test
+    void getUserIdByUsername_WithNonExistentUsername_ShouldReturnNull() {
+        // Arrange
+        when(userRepository.findIdByUserName("nonexistent")).thenReturn(null);
+
+        // Act & Assert
+        assertNull(userService.getUserIdByUsername("nonexistent"));
+    }
+
+    // Test atomic journal counter update returns owner id without saving the user
+    @Test
+    void incrementJournalCount_WithValidUsername_ShouldUseSingleAtomicUpdate() {
+        // Arrange
+        ObjectId userId = new ObjectId();
+        testUser.setId(userId);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Users.class)))
+                .thenReturn(testUser);
+
+        // Act
+        ObjectId result = userService.incrementJournalCount("testuser", 1);
+
+        // Assert
+        assertEquals(userId, result);
+        verify(userRepository, never()).save(any());
+    }
+
+    // Test counter update also bumps the journal-set version
+    @Test
+    void incrementJournalCount_WithUserId_ShouldBumpJournalsVersion() {
+        // Arrange
+        ObjectId userId = new ObjectId();
+
+        // Act
+        userService.incrementJournalCount(userId, -1);
+
+        // Assert
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Users.class));
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(-1L, inc.get("journalCount"));
+        assertEquals(1, inc.get("journalsVersion"));
+    }
+
+    // Test journal-set version lookup uses the projection query
+    @Test
+    void getJournalsVersion_WithValidUsername_ShouldReturnVersion() {
+        // Arrange
+        testUser.setJournalsVersion(12);
+        when(userRepository.findJournalsVersionByUserName("testuser")).thenReturn(testUser);
+
+        // Act & Assert
+        assertEquals(12L, userService.getJournalsVersion("testuser"));
+        verify(userRepository, never()).findByUserName(any());
+    }
+
+    // Test deleting existing user persists the purge job before the user is deleted
+    @Test
+    void deleteSpecificUserByUsername_WithValidUsername_ShouldPersistPurgeThenDeleteUser() {
+        // Arrange
+        ObjectId userId = new ObjectId();
+        testUser.setId(userId);
+        PurgeJob purgeJob = new PurgeJob();
+        when(userRepository.findIdByUserName("testuser")).thenReturn(testUser);
+        when(journalPurgeService.create(userId, "testuser")).thenReturn(purgeJob);
 
         // Act
-        userService.deleteSpecificUserByUsername("testuser");
+        PurgeJob result = userService.deleteSpecificUserByUsername("testuser");
 
         // Assert
-        verify(userRepository, times(1)).deleteByUserName("testuser");
+        assertSame(purgeJob, result);
+        InOrder order = inOrder(journalPurgeService, userRepository);
+        order.verify(journalPurgeService).create(userId, "testuser");
+        order.verify(userRepository).deleteByUserName("testuser");
+        order.verify(journalPurgeService).schedule(purgeJob);
+        verify(credentialCacheService, times(1)).invalidateUser("testuser");
+        verify(userDetailService, times(1)).invalidate("testuser");
+    }
+
+    // Test a failed user delete cancels the persisted purge job instead of running it
+    @Test
+    void deleteSpecificUserByUsername_WhenDeleteFails_ShouldCancelPurge() {
+        // Arrange
+        ObjectId userId = new ObjectId();
+        testUser.setId(userId);
+        PurgeJob purgeJob = new PurgeJob();
+        purgeJob.setId(new ObjectId());
+        when(userRepository.findIdByUserName("testuser")).thenReturn(testUser);
+        when(journalPurgeService.create(userId, "testuser")).thenReturn(purgeJob);
+        when(userRepository.deleteByUserName("testuser")).thenThrow(new RuntimeException("Database error"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> userService.deleteSpecificUserByUsername("testuser"));
+        verify(journalPurgeService, times(1)).cancel(purgeJob.getId());
+        verify(journalPurgeService, never()).schedule(any());
     }
 
     // Test deleting non-existent user
     @Test
     void deleteSpecificUserByUsername_WithNonExistentUsername_ShouldNotThrowException() {
         // Arrange
-        doNothing().when(userRepository).deleteByUserName("nonexistent");
+        when(userRepository.findIdByUserName("nonexistent")).thenReturn(null);
 
         // Act & Assert (should not throw exception)
         assertDoesNotThrow(() -> {
-            userService.deleteSpecificUserByUsername("nonexistent");
+            assertNull(userService.deleteSpecificUserByUsername("nonexistent"));
         });
 
-        verify(userRepository, times(1)).deleteByUserName("nonexistent");
+        verify(userRepository, never()).deleteByUserName("nonexistent");
+        verify(journalPurgeService, never()).create(any(), any());
     }
 
     // Test saving admin user with appropriate roles